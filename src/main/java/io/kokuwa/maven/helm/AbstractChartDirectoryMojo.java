@@ -2,22 +2,20 @@ package io.kokuwa.maven.helm;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.FileVisitOption;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.codehaus.plexus.util.FileUtils;
-import org.codehaus.plexus.util.MatchPatterns;
 
+import io.kokuwa.maven.helm.util.ChartGraph;
+import io.kokuwa.maven.helm.util.ChartScanner;
+import io.kokuwa.maven.helm.util.ParallelExecutor;
+import io.kokuwa.maven.helm.util.ParallelExecutor.Task;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -52,6 +50,15 @@ public abstract class AbstractChartDirectoryMojo extends AbstractMojo {
 	@Parameter(property = "helm.chartDirectory", required = true)
 	private File chartDirectory;
 
+	/**
+	 * Number of charts to process at the same time. Accepts a number, "cores" or a multiple of available cores like
+	 * "2C". Failures of single charts are collected and reported after all charts are processed.
+	 *
+	 * @since 6.18.0
+	 */
+	@Parameter(property = "helm.parallelism", defaultValue = "1")
+	private String parallelism;
+
 	List<Path> getChartDirectories() throws MojoExecutionException {
 
 		List<String> exclusions = new ArrayList<>();
@@ -59,15 +66,8 @@ public abstract class AbstractChartDirectoryMojo extends AbstractMojo {
 			exclusions.addAll(Arrays.asList(excludes));
 		}
 		exclusions.addAll(FileUtils.getDefaultExcludesAsList());
-		MatchPatterns exclusionPatterns = MatchPatterns.from(exclusions);
-
-		try (Stream<Path> files = Files.walk(chartDirectory.toPath(), FileVisitOption.FOLLOW_LINKS)) {
-			List<Path> chartDirectories = files
-					.filter(p -> p.getFileName().toString().equalsIgnoreCase("chart.yaml"))
-					.map(Path::getParent)
-					.filter(p -> !exclusionPatterns.matches(p.toString(), false))
-					.sorted(Comparator.reverseOrder())
-					.collect(Collectors.toList());
+		try {
+			List<Path> chartDirectories = ChartScanner.scan(chartDirectory.toPath(), exclusions);
 			if (chartDirectories.isEmpty()) {
 				getLog().warn("No Charts detected - no Chart.yaml files found below " + chartDirectory);
 			}
@@ -76,4 +76,29 @@ public abstract class AbstractChartDirectoryMojo extends AbstractMojo {
 			throw new MojoExecutionException("Unable to scan chart directory at " + chartDirectory, e);
 		}
 	}
+
+	/**
+	 * Execute task for every chart directory using "helm.parallelism" workers.
+	 *
+	 * @param task task to execute for a single chart directory
+	 * @throws MojoExecutionException At least one chart failed.
+	 */
+	void forEachChartDirectory(Task<Path> task) throws MojoExecutionException {
+		new ParallelExecutor(ParallelExecutor.parseParallelism(parallelism)).execute(getChartDirectories(), task);
+	}
+
+	/**
+	 * Execute task for every chart directory after all charts it depends on with "file://" repositories. Charts
+	 * without dependencies between them are processed by "helm.parallelism" workers. Processing stops after the
+	 * first level of charts with failures.
+	 *
+	 * @param task task to execute for a single chart directory
+	 * @throws MojoExecutionException At least one chart failed or charts depend on each other in a cycle.
+	 */
+	void forEachChartDirectoryInDependencyOrder(Task<Path> task) throws MojoExecutionException {
+		ParallelExecutor executor = new ParallelExecutor(ParallelExecutor.parseParallelism(parallelism));
+		for (List<Path> level : new ChartGraph(getLog()).levels(getChartDirectories())) {
+			executor.execute(level, task);
+		}
+	}
 }
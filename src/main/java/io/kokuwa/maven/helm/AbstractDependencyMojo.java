@@ -6,6 +6,7 @@ import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.annotations.Parameter;
 
 import io.kokuwa.maven.helm.util.DependencyOverwriter;
+import io.kokuwa.maven.helm.util.ParallelExecutor;
 import lombok.Setter;
 
 /** Base class for dependency build and update mojos. */
@@ -47,6 +48,62 @@ public abstract class AbstractDependencyMojo extends AbstractHelmMojo {
 	@Parameter(property = "helm.overwriteDependencyRepository")
 	protected String overwriteDependencyRepository;
 
+	/**
+	 * Set this to <code>true</code> to refresh all repository indexes concurrently before any chart is processed
+	 * instead of letting helm download every index for each chart. Indexes are requested with "If-None-Match" and
+	 * "If-Modified-Since", so an unchanged index costs one round trip. Helm is invoked with "--skip-refresh"
+	 * afterwards.
+	 *
+	 * @since 6.18.0
+	 */
+	@Parameter(property = "helm.dependency.prefetch", defaultValue = "false")
+	protected boolean repositoryPrefetch;
+
+	/**
+	 * Maximum number of repository indexes fetched at the same time by "helm.dependency.prefetch". Accepts a number,
+	 * "cores" or a multiple of cores like "2C".
+	 *
+	 * @since 6.18.0
+	 */
+	@Parameter(property = "helm.dependency.prefetch-parallelism", defaultValue = "4")
+	protected String repositoryPrefetchParallelism;
+
+	/**
+	 * Verifies configuration for overwriting local dependencies before any chart is processed.
+	 *
+	 * @throws MojoExecutionException Null value for 'overwriteDependencyRepository'
+	 *
+	 * @since 6.18.0
+	 */
+	protected void verifyOverwriteLocalDependencies() throws MojoExecutionException {
+		if (overwriteLocalDependencies && overwriteDependencyRepository == null) {
+			throw new MojoExecutionException("Null value for 'overwriteDependencyRepository' is " +
+					"not allowed when using 'overwriteLocalDependencies'. See the README for more details.");
+		}
+	}
+
+	/**
+	 * Refresh repository indexes if "helm.dependency.prefetch" is enabled. If Maven is offline nothing is refreshed
+	 * and helm has to use the cached indexes.
+	 *
+	 * @return <code>true</code> if all indexes are fresh and helm can skip refreshing them.
+	 * @throws MojoExecutionException Index is not available.
+	 *
+	 * @since 6.18.0
+	 */
+	protected boolean prefetchRepositoryIndexes() throws MojoExecutionException {
+		if (isOffline()) {
+			getLog().info("Maven is offline, use cached repository indexes");
+			return true;
+		}
+		if (!repositoryPrefetch) {
+			return false;
+		}
+		return getRepositoryRegistry()
+				.setParallelism(ParallelExecutor.parseParallelism(repositoryPrefetchParallelism))
+				.refresh();
+	}
+
 	/**
 	 * Overwrites the local path of a chart dependency with the desired repository and version when
 	 * helm.overwriteLocalDependencies is set to <code>true</code>.
@@ -58,10 +115,7 @@ public abstract class AbstractDependencyMojo extends AbstractHelmMojo {
 	 */
 	protected void doOverwriteLocalDependencies(Path chartDirectory) throws MojoExecutionException {
 		if (overwriteLocalDependencies) {
-			if (overwriteDependencyRepository == null) {
-				throw new MojoExecutionException("Null value for 'overwriteDependencyRepository' is " +
-						"not allowed when using 'overwriteLocalDependencies'. See the README for more details.");
-			}
+			verifyOverwriteLocalDependencies();
 			getLog().info("Overwriting dependencies that contain local path charts with "
 					+ overwriteDependencyRepository);
 			new DependencyOverwriter(overwriteDependencyRepository, overwriteDependencyVersion, getLog())
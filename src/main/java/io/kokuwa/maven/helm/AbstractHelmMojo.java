@@ -2,15 +2,31 @@ package io.kokuwa.maven.helm;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.PasswordAuthentication;
+import java.net.Proxy;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import javax.net.ssl.HttpsURLConnection;
+
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.annotations.Component;
 import org.apache.maven.plugins.annotations.Parameter;
@@ -20,14 +36,21 @@ import org.apache.maven.settings.Server;
 import org.apache.maven.settings.Settings;
 import org.codehaus.plexus.util.Os;
 import org.codehaus.plexus.util.StringUtils;
+import org.eclipse.aether.SessionData;
 import org.sonatype.plexus.components.sec.dispatcher.DefaultSecDispatcher;
 import org.sonatype.plexus.components.sec.dispatcher.SecDispatcher;
 import org.sonatype.plexus.components.sec.dispatcher.SecDispatcherException;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import io.kokuwa.maven.helm.github.Github;
 import io.kokuwa.maven.helm.pojo.HelmExecutable;
 import io.kokuwa.maven.helm.pojo.HelmRepository;
+import io.kokuwa.maven.helm.pojo.HelmResult;
 import io.kokuwa.maven.helm.pojo.K8SCluster;
+import io.kokuwa.maven.helm.pojo.PackageManifest;
+import io.kokuwa.maven.helm.util.Fingerprint;
+import io.kokuwa.maven.helm.util.RepositoryRegistry;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -41,6 +64,12 @@ import lombok.Setter;
 @Setter
 public abstract class AbstractHelmMojo extends AbstractChartDirectoryMojo {
 
+	/** Name of manifest written by "helm:package" to output directory. */
+	static final String PACKAGE_MANIFEST = "package-manifest.json";
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+	/** Versions reported by helm executables, keyed by fingerprint of path, size and modification time. */
+	private static final Map<String, String> EXECUTABLE_VERSIONS = new ConcurrentHashMap<>();
+
 	/** Path of helm executable. */
 	private final Path helmExecutableName = Paths.get(Os.isFamily(Os.FAMILY_WINDOWS) ? "helm.exe" : "helm");
 
@@ -58,6 +87,14 @@ public abstract class AbstractHelmMojo extends AbstractChartDirectoryMojo {
 	@Parameter(defaultValue = "${project}", readonly = true, required = true)
 	protected MavenProject mavenProject;
 
+	/**
+	 * The maven session, used to share state between goals and modules of one build.
+	 *
+	 * @since 6.18.0
+	 */
+	@Parameter(defaultValue = "${session}", readonly = true)
+	private MavenSession session;
+
 	/**
 	 * Controls whether a local binary should be used instead of downloading it. If set to <code>true</code> path has to
 	 * be set with property "helm.executableDirectory".
@@ -93,6 +130,15 @@ public abstract class AbstractHelmMojo extends AbstractChartDirectoryMojo {
 	@Parameter(property = "helm.outputDirectory", defaultValue = "${project.build.directory}/helm/repo")
 	private File outputDirectory;
 
+	/**
+	 * Set this to <code>true</code> to upload all chart archives found in output directory instead of the archives
+	 * recorded by "helm:package" in "package-manifest.json". This includes stale archives of previous builds.
+	 *
+	 * @since 6.18.0
+	 */
+	@Parameter(property = "helm.outputDirectory.scan", defaultValue = "false")
+	private boolean scanOutputDirectory;
+
 	/**
 	 * Version of the charts. The version have to be in the SEMVER-Format (https://semver.org/), required by helm.
 	 *
@@ -118,7 +164,7 @@ public abstract class AbstractHelmMojo extends AbstractChartDirectoryMojo {
 	private HelmRepository uploadRepoSnapshot;
 
 	/**
-	 * Version of helm to download.
+	 * Version of helm to download. Ranges like "3.14.x" or "[3.13,3.15)" resolve to the newest matching release.
 	 *
 	 * @since 5.5
 	 */
@@ -133,6 +179,14 @@ public abstract class AbstractHelmMojo extends AbstractChartDirectoryMojo {
 	@Parameter(property = "helm.githubUserAgent", defaultValue = "kokuwaio/helm-maven-plugin")
 	private String githubUserAgent;
 
+	/**
+	 * Id of server in settings.xml with a Github token as password, raises rate limit of Github api.
+	 *
+	 * @since 6.18.0
+	 */
+	@Parameter(property = "helm.githubServerId")
+	private String githubServerId;
+
 	/*
 	 * Skip accessing the Github API for helm version if cache is newer than given days.
 	 *
@@ -149,6 +203,15 @@ public abstract class AbstractHelmMojo extends AbstractChartDirectoryMojo {
 	@Parameter(property = "helm.tmpDir", defaultValue = "${java.io.tmpdir}/helm-maven-plugin")
 	private File tmpDir;
 
+	/**
+	 * Time in seconds after which a single helm command is killed, including all processes started by helm. Can be
+	 * overwritten by goals with long running network operations, e.g. "helm.upgrade.executionTimeout".
+	 *
+	 * @since 6.18.0
+	 */
+	@Parameter(property = "helm.executionTimeout")
+	private Integer executionTimeout;
+
 	/**
 	 * Enable verbose output.
 	 *
@@ -315,7 +378,9 @@ public abstract class AbstractHelmMojo extends AbstractChartDirectoryMojo {
 				getLog().warn("NOTE: <k8sCluster> option will be removed in future major release.");
 			}
 		}
+		Integer timeout = getExecutionTimeout();
 		return helm
+				.setTimeout(timeout == null ? null : Duration.ofSeconds(timeout))
 				.flag("debug", debug)
 				.flag("kube-apiserver", kubeApiServer)
 				.flag("kube-as-group", kubeAsGroup)
@@ -330,14 +395,50 @@ public abstract class AbstractHelmMojo extends AbstractChartDirectoryMojo {
 	}
 
 	List<Path> getChartArchives() throws MojoExecutionException {
-		try (Stream<Path> files = Files.walk(getOutputDirectory())) {
-			return files
-					.filter(s -> Stream.of(".tgz", "tgz.prov").anyMatch(e -> s.getFileName().toString().endsWith(e)))
-					.peek(p -> getLog().debug("Found chart file for upload: " + p))
-					.collect(Collectors.toList());
+
+		if (scanOutputDirectory) {
+			try (Stream<Path> files = Files.walk(getOutputDirectory())) {
+				return files
+						.filter(s -> Stream.of(".tgz", "tgz.prov")
+								.anyMatch(e -> s.getFileName().toString().endsWith(e)))
+						.peek(p -> getLog().debug("Found chart file for upload: " + p))
+						.collect(Collectors.toList());
+			} catch (IOException e) {
+				throw new MojoExecutionException("Unable to scan repo directory at " + outputDirectory, e);
+			}
+		}
+
+		Path manifestFile = getOutputDirectory().resolve(PACKAGE_MANIFEST);
+		if (!Files.isRegularFile(manifestFile)) {
+			throw new MojoExecutionException("No package manifest found at " + manifestFile + ", run helm:package "
+					+ "before or set helm.outputDirectory.scan to use all archives in " + outputDirectory);
+		}
+		PackageManifest manifest;
+		try {
+			manifest = MAPPER.readValue(manifestFile.toFile(), PackageManifest.class);
 		} catch (IOException e) {
-			throw new MojoExecutionException("Unable to scan repo directory at " + outputDirectory, e);
+			throw new MojoExecutionException("Unable to read package manifest " + manifestFile, e);
 		}
+
+		List<Path> files = new ArrayList<>();
+		for (PackageManifest.Archive archive : manifest.getArchives()) {
+			Path file = getOutputDirectory().resolve(archive.getPath());
+			try {
+				if (!Files.isRegularFile(file) || Files.size(file) != archive.getSize()
+						|| !Fingerprint.digest(file).equals(archive.getSha256())) {
+					throw new MojoExecutionException("Chart archive " + file + " is missing or was modified after "
+							+ "packaging, run helm:package again.");
+				}
+			} catch (IOException e) {
+				throw new MojoExecutionException("Unable to verify chart archive " + file, e);
+			}
+			getLog().debug("Found chart file for upload: " + file);
+			files.add(file);
+			if (archive.getProvenance() != null) {
+				files.add(getOutputDirectory().resolve(archive.getProvenance()));
+			}
+		}
+		return files;
 	}
 
 	HelmRepository getHelmUploadRepo() {
@@ -383,26 +484,209 @@ public abstract class AbstractHelmMojo extends AbstractChartDirectoryMojo {
 					+ " was found in server list but has no username/password.");
 		}
 
+		return new PasswordAuthentication(server.getUsername(), decrypt(server.getPassword()).toCharArray());
+	}
+
+	private String getGithubToken() throws MojoExecutionException {
+		if (githubServerId == null) {
+			return null;
+		}
+		Server server = settings.getServer(githubServerId);
+		if (server == null || server.getPassword() == null) {
+			throw new MojoExecutionException("Github server " + githubServerId + " not found in settings.xml "
+					+ "or has no password.");
+		}
+		return decrypt(server.getPassword());
+	}
+
+	private String decrypt(String password) throws MojoExecutionException {
 		try {
 			if (securityDispatcher instanceof DefaultSecDispatcher) {
 				((DefaultSecDispatcher) securityDispatcher).setConfigurationFile(helmSecurity);
 			}
-			return new PasswordAuthentication(server.getUsername(),
-					securityDispatcher.decrypt(server.getPassword()).toCharArray());
+			return securityDispatcher.decrypt(password);
 		} catch (SecDispatcherException e) {
 			throw new MojoExecutionException(e.getMessage());
 		}
 	}
 
+	/**
+	 * Registry for repository config and cache used by helm. Paths not configured are taken from "helm env", so the
+	 * same files are used as by helm.
+	 */
+	RepositoryRegistry getRepositoryRegistry() throws MojoExecutionException {
+		Path config = getRepositoryConfig() == null ? null : getRepositoryConfig().toPath();
+		Path cache = getRepositoryCache() == null ? null : getRepositoryCache().toPath();
+		if (config == null || cache == null) {
+			Map<String, String> env = getHelmEnvironment();
+			config = config == null ? Paths.get(env.get("HELM_REPOSITORY_CONFIG")) : config;
+			cache = cache == null ? Paths.get(env.get("HELM_REPOSITORY_CACHE")) : cache;
+		}
+		return new RepositoryRegistry(getLog(), config, cache, this::openConnection).setOffline(isOffline());
+	}
+
+	private Map<String, String> getHelmEnvironment() throws MojoExecutionException {
+		Map<String, String> env = new HashMap<>();
+		try (HelmResult result = helm().arguments("env").capture("Unable to get helm environment")) {
+			// format: HELM_REPOSITORY_CONFIG="/home/user/.config/helm/repositories.yaml"
+			for (String line : result.getStdout().split("\\R")) {
+				int separator = line.indexOf('=');
+				if (separator > 0) {
+					String value = line.substring(separator + 1).trim().replace("\"", "");
+					env.put(line.substring(0, separator).trim(), value);
+				}
+			}
+		} catch (IOException e) {
+			getLog().warn("Failed to cleanup output of helm", e);
+		}
+		for (String key : Arrays.asList("HELM_REPOSITORY_CONFIG", "HELM_REPOSITORY_CACHE")) {
+			if (StringUtils.isBlank(env.get(key))) {
+				throw new MojoExecutionException("Unable to get " + key + " from helm env.");
+			}
+		}
+		return env;
+	}
+
+	/**
+	 * Version of the helm executable that actually runs. A downloaded executable has the configured version, any other
+	 * executable is asked with "helm version". Answers are cached by path, size and modification time of the
+	 * executable in memory and in tmp directory, so no network is needed.
+	 *
+	 * @return version without "v" prefix, empty if executable does not report a version
+	 */
+	Optional<String> getExecutableHelmVersion() throws MojoExecutionException {
+
+		if (helmVersion != null && !useLocalHelmBinary) {
+			return Optional.of(getHelmVersion());
+		}
+
+		Path executable = getHelmExecutablePath();
+		String key;
+		try {
+			key = new Fingerprint()
+					.add("executable", executable)
+					.add("size", Files.size(executable))
+					.add("modified", Files.getLastModifiedTime(executable).toMillis())
+					.hex();
+		} catch (IOException e) {
+			throw new MojoExecutionException("Unable to read helm executable " + executable, e);
+		}
+
+		String version = EXECUTABLE_VERSIONS.get(key);
+		if (version == null) {
+			Path cache = tmpDir.toPath().resolve("helm-versions").resolve(key);
+			try {
+				if (Files.isRegularFile(cache)) {
+					version = new String(Files.readAllBytes(cache), StandardCharsets.UTF_8).trim();
+				}
+			} catch (IOException e) {
+				getLog().debug("Unable to read cached helm version from " + cache, e);
+			}
+			if (version == null) {
+				// failed probes are not cached, the executable may answer next time
+				Optional<String> probed = probeHelmVersion(executable);
+				if (!probed.isPresent()) {
+					return Optional.empty();
+				}
+				version = probed.get();
+				try {
+					Files.createDirectories(cache.getParent());
+					Path temp = Files.createTempFile(cache.getParent(), key, ".tmp");
+					Files.write(temp, version.getBytes(StandardCharsets.UTF_8));
+					Files.move(temp, cache, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				} catch (IOException e) {
+					getLog().debug("Unable to cache helm version in " + cache, e);
+				}
+			}
+			EXECUTABLE_VERSIONS.put(key, version);
+		}
+		return Optional.of(version).filter(v -> !v.isEmpty());
+	}
+
+	/** Ask executable for its version, e.g. wrapper scripts or helm without "--template" do not answer. */
+	private Optional<String> probeHelmVersion(Path executable) {
+		try (HelmResult result = new HelmExecutable(getLog(), executable)
+				.arguments("version", "--template", "{{.Version}}")
+				.capture("Unable to get version of helm executable " + executable)) {
+			String version = result.getStdout().trim();
+			return Optional.of(version.startsWith("v") ? version.substring(1) : version);
+		} catch (MojoExecutionException e) {
+			getLog().warn(e.getMessage() + ", continue with unknown helm version.");
+			return Optional.empty();
+		} catch (IOException e) {
+			getLog().warn("Failed to cleanup output of helm", e);
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * Maven runs in offline mode ("-o"), network access has to be avoided.
+	 */
+	boolean isOffline() {
+		return settings != null && settings.isOffline();
+	}
+
+	/**
+	 * Open connection using active proxy from <code>settings.xml</code>.
+	 */
+	URLConnection openConnection(URL url) throws IOException {
+
+		Proxy proxy = settings.getProxies().stream()
+				.filter(p -> p.isActive() && Stream
+						.of(Optional.ofNullable(p.getNonProxyHosts()).orElse("").split("\\|"))
+						.noneMatch(url.getHost()::equals))
+				.findFirst()
+				.map(p -> {
+					getLog().debug("Use proxy [" + p.getId() + "] for [" + url + "]");
+					return new Proxy(
+							Optional.ofNullable(p.getProtocol()).map(String::toUpperCase)
+									.map(Proxy.Type::valueOf).orElse(Proxy.Type.HTTP),
+							new InetSocketAddress(p.getHost(), p.getPort()));
+				})
+				.orElse(null);
+
+		URLConnection connection;
+		if (proxy == null) {
+			connection = url.openConnection();
+		} else {
+			connection = url.openConnection(proxy);
+			if (connection instanceof HttpsURLConnection) {
+				try {
+					TLSHelper.insecure((HttpsURLConnection) connection);
+				} catch (MojoExecutionException e) {
+					throw new IOException(e.getMessage(), e);
+				}
+			}
+		}
+		return connection;
+	}
+
 	// getter
 
 	public String getHelmVersion() throws MojoExecutionException {
-		if (helmVersion == null) {
-			helmVersion = new Github(getLog(), tmpDir.toPath(), githubUserAgent, cacheValidityDays).getHelmVersion();
+		if (helmVersion == null || Github.isRange(helmVersion)) {
+			Github github = new Github(getLog(), tmpDir.toPath(), githubUserAgent, cacheValidityDays, isOffline())
+					.setToken(getGithubToken())
+					.setState(getGithubState());
+			helmVersion = helmVersion == null ? github.getHelmVersion() : github.getHelmVersion(helmVersion);
 		}
 		return helmVersion;
 	}
 
+	/** Github state is kept in session data, so it lives as long as the build and not as long as the plugin. */
+	private Github.State getGithubState() {
+		if (session == null || session.getRepositorySession() == null) {
+			return new Github.State();
+		}
+		SessionData data = session.getRepositorySession().getData();
+		Github.State state = (Github.State) data.get(Github.State.class);
+		if (state == null) {
+			data.set(Github.State.class, null, new Github.State());
+			state = (Github.State) data.get(Github.State.class);
+		}
+		return state;
+	}
+
 	public boolean isPlainHttp(Boolean mojoPlainHttp) {
 		return mojoPlainHttp != null ? mojoPlainHttp : plainHttp;
 	}
@@ -1,5 +1,10 @@
 package io.kokuwa.maven.helm;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.Map;
 import java.util.stream.Collectors;
 
@@ -7,7 +12,10 @@ import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.annotations.Parameter;
 
 import io.kokuwa.maven.helm.pojo.HelmExecutable;
+import io.kokuwa.maven.helm.pojo.HelmResult;
 import io.kokuwa.maven.helm.pojo.ValueOverride;
+import io.kokuwa.maven.helm.util.Fingerprint;
+import io.kokuwa.maven.helm.util.ResultCache;
 import lombok.Setter;
 
 @Setter
@@ -21,6 +29,32 @@ public abstract class AbstractHelmWithValueOverrideMojo extends AbstractHelmMojo
 	@Parameter
 	private ValueOverride values;
 
+	/**
+	 * Cache results of lint, template and dry-run. Cache key contains contents of chart directory and value files,
+	 * helm arguments and flags and the helm binary. Results of dry-run depend also on cluster state, which is not part
+	 * of the key. Only successful results are cached.
+	 *
+	 * @since 6.18.0
+	 */
+	@Parameter(property = "helm.resultCache", defaultValue = "false")
+	private boolean resultCache;
+
+	/**
+	 * Directory for cached results (default "helm.tmpDir"/results).
+	 *
+	 * @since 6.18.0
+	 */
+	@Parameter(property = "helm.resultCacheDirectory")
+	private File resultCacheDirectory;
+
+	/**
+	 * Days after which cached results that were not replayed are removed, 0 keeps results forever.
+	 *
+	 * @since 6.18.0
+	 */
+	@Parameter(property = "helm.resultCacheRetentionDays", defaultValue = "30")
+	private int resultCacheRetentionDays;
+
 	@Override
 	HelmExecutable helm() throws MojoExecutionException {
 		HelmExecutable command = super.helm();
@@ -50,6 +84,71 @@ public abstract class AbstractHelmWithValueOverrideMojo extends AbstractHelmMojo
 		return command;
 	}
 
+	/**
+	 * Execute helm command or replay the cached result if "helm.resultCache" is enabled.
+	 *
+	 * @param helm           helm command to execute
+	 * @param chartDirectory chart processed by command
+	 * @param errorMessage   Error message if exit code is not zero.
+	 * @throws MojoExecutionException Failed to execute helm command.
+	 */
+	void executeCached(HelmExecutable helm, Path chartDirectory, String errorMessage) throws MojoExecutionException {
+
+		if (!resultCache) {
+			helm.execute(errorMessage);
+			return;
+		}
+
+		String key;
+		try {
+			key = getResultCacheKey(helm, chartDirectory);
+		} catch (IOException e) {
+			throw new MojoExecutionException("Unable to calculate cache key for " + chartDirectory, e);
+		}
+
+		Path directory = resultCacheDirectory != null
+				? resultCacheDirectory.toPath()
+				: getTmpDir().toPath().resolve("results");
+		ResultCache cache = new ResultCache(getLog(), directory)
+				.setMaxAge(resultCacheRetentionDays > 0 ? Duration.ofDays(resultCacheRetentionDays) : null);
+		if (cache.replay(key, errorMessage)) {
+			return;
+		}
+		try (HelmResult result = helm.run()) {
+			// failures are not cached, they may be transient (e.g. unreachable cluster for dry-run)
+			if (!result.isSuccess()) {
+				throw new MojoExecutionException(errorMessage);
+			}
+			cache.store(key, result);
+		} catch (IOException e) {
+			getLog().warn("Failed to cleanup output of helm", e);
+		}
+	}
+
+	private String getResultCacheKey(HelmExecutable helm, Path chartDirectory) throws IOException {
+		Fingerprint fingerprint = new Fingerprint()
+				.addFile("helm", helm.getExecutable())
+				.add("command", String.join("\0", helm.getCommandLine()))
+				.add("stdin", helm.getStdin())
+				.addDirectory("chart", chartDirectory);
+		if (values != null) {
+			if (values.getYamlFile() != null) {
+				fingerprint.addFile(values.getYamlFile(), Paths.get(values.getYamlFile()));
+			}
+			if (values.getYamlFiles() != null) {
+				for (String yamlFile : values.getYamlFiles()) {
+					fingerprint.addFile(yamlFile, Paths.get(yamlFile));
+				}
+			}
+			if (isNotEmpty(values.getFileOverrides())) {
+				for (String file : values.getFileOverrides().values()) {
+					fingerprint.addFile(file, Paths.get(file));
+				}
+			}
+		}
+		return fingerprint.hex();
+	}
+
 	private static <K, V> boolean isNotEmpty(Map<K, V> map) {
 		return map != null && !map.isEmpty();
 	}
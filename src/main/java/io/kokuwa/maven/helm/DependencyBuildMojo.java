@@ -1,7 +1,5 @@
 package io.kokuwa.maven.helm;
 
-import java.nio.file.Path;
-
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
@@ -37,6 +35,14 @@ public class DependencyBuildMojo extends AbstractDependencyMojo {
 	@Parameter(property = "helm.dependency-build.skip-repo-refresh", defaultValue = "false")
 	private boolean skipDependencyBuildRepoRefresh;
 
+	/**
+	 * Time in seconds after which a single helm command of this goal is killed. Overwrites "helm.executionTimeout".
+	 *
+	 * @since 6.18.0
+	 */
+	@Parameter(property = "helm.dependency-build.executionTimeout")
+	private Integer dependencyBuildExecutionTimeout;
+
 	@Override
 	public void execute() throws MojoExecutionException {
 
@@ -45,17 +51,26 @@ public class DependencyBuildMojo extends AbstractDependencyMojo {
 			return;
 		}
 
-		for (Path chartDirectory : getChartDirectories()) {
+		verifyOverwriteLocalDependencies();
+		boolean skipRefresh = skipDependencyBuildRepoRefresh || prefetchRepositoryIndexes();
+		forEachChartDirectoryInDependencyOrder(chartDirectory -> {
 
 			doOverwriteLocalDependencies(chartDirectory);
 
 			getLog().info("Build chart dependencies for " + chartDirectory + " ...");
 			HelmExecutable helm = helm()
 					.arguments("dependency", "build", chartDirectory);
-			if (skipDependencyBuildRepoRefresh) {
+			if (skipRefresh) {
 				helm.flag("skip-refresh");
 			}
 			helm.execute("Failed to resolve dependencies");
-		}
+		});
+	}
+
+	@Override
+	public Integer getExecutionTimeout() {
+		return dependencyBuildExecutionTimeout != null
+				? dependencyBuildExecutionTimeout
+				: super.getExecutionTimeout();
 	}
 }
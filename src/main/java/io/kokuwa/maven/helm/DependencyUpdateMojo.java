@@ -1,7 +1,5 @@
 package io.kokuwa.maven.helm;
 
-import java.nio.file.Path;
-
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
@@ -36,6 +34,14 @@ public class DependencyUpdateMojo extends AbstractDependencyMojo {
 	@Parameter(property = "helm.dependency-update.skip-repo-refresh", defaultValue = "false")
 	private boolean skipDependencyUpdateRepoRefresh;
 
+	/**
+	 * Time in seconds after which a single helm command of this goal is killed. Overwrites "helm.executionTimeout".
+	 *
+	 * @since 6.18.0
+	 */
+	@Parameter(property = "helm.dependency-update.executionTimeout")
+	private Integer dependencyUpdateExecutionTimeout;
+
 	@Override
 	public void execute() throws MojoExecutionException {
 
@@ -44,17 +50,26 @@ public class DependencyUpdateMojo extends AbstractDependencyMojo {
 			return;
 		}
 
-		for (Path chartDirectory : getChartDirectories()) {
+		verifyOverwriteLocalDependencies();
+		boolean skipRefresh = skipDependencyUpdateRepoRefresh || prefetchRepositoryIndexes();
+		forEachChartDirectoryInDependencyOrder(chartDirectory -> {
 
 			doOverwriteLocalDependencies(chartDirectory);
 
 			getLog().info("Updating chart dependencies for " + chartDirectory + " ...");
 			HelmExecutable helm = helm()
 					.arguments("dependency", "update", chartDirectory);
-			if (skipDependencyUpdateRepoRefresh) {
+			if (skipRefresh) {
 				helm.flag("skip-refresh");
 			}
 			helm.execute("Failed to resolve dependencies");
-		}
+		});
+	}
+
+	@Override
+	public Integer getExecutionTimeout() {
+		return dependencyUpdateExecutionTimeout != null
+				? dependencyUpdateExecutionTimeout
+				: super.getExecutionTimeout();
 	}
 }
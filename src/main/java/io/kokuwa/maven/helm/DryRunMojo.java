@@ -1,7 +1,5 @@
 package io.kokuwa.maven.helm;
 
-import java.nio.file.Path;
-
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
@@ -45,13 +43,12 @@ public class DryRunMojo extends AbstractHelmWithValueOverrideMojo {
 			return;
 		}
 
-		for (Path chartDirectory : getChartDirectories()) {
+		forEachChartDirectory(chartDirectory -> {
 			getLog().info("\n\nPerform dry-run for chart " + chartDirectory + "...");
-			helm()
+			executeCached(helm()
 					.arguments(action, chartDirectory)
 					.flag("dry-run")
-					.flag("generate-name")
-					.execute("There are test failures");
-		}
+					.flag("generate-name"), chartDirectory, "There are test failures");
+		});
 	}
 }
@@ -1,33 +1,30 @@
 package io.kokuwa.maven.helm;
 
 import java.io.BufferedInputStream;
+import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.Authenticator;
-import java.net.InetSocketAddress;
 import java.net.MalformedURLException;
 import java.net.PasswordAuthentication;
-import java.net.Proxy;
 import java.net.URL;
-import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.LinkOption;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.AclEntry;
 import java.nio.file.attribute.AclEntryPermission;
 import java.nio.file.attribute.AclEntryType;
 import java.nio.file.attribute.AclFileAttributeView;
 import java.nio.file.attribute.PosixFilePermission;
 import java.nio.file.attribute.UserPrincipal;
+import java.time.Duration;
 import java.util.List;
 import java.util.Locale;
-import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Stream;
-
-import javax.net.ssl.HttpsURLConnection;
 
 import org.apache.commons.compress.archivers.ArchiveEntry;
 import org.apache.commons.compress.archivers.ArchiveException;
@@ -41,11 +38,18 @@ import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.settings.Server;
+import org.codehaus.plexus.util.FileUtils;
 import org.codehaus.plexus.util.Os;
 import org.codehaus.plexus.util.StringUtils;
 
 import io.kokuwa.maven.helm.pojo.HelmExecutable;
 import io.kokuwa.maven.helm.pojo.HelmRepository;
+import io.kokuwa.maven.helm.pojo.RepositoriesFile;
+import io.kokuwa.maven.helm.util.FileMutex;
+import io.kokuwa.maven.helm.util.Fingerprint;
+import io.kokuwa.maven.helm.util.HttpDownloader;
+import io.kokuwa.maven.helm.util.ParallelExecutor;
+import io.kokuwa.maven.helm.util.RepositoryRegistry;
 import lombok.Setter;
 import lombok.SneakyThrows;
 
@@ -60,6 +64,10 @@ import lombok.SneakyThrows;
 public class InitMojo extends AbstractHelmMojo {
 
 	public static final String STABLE_HELM_REPO = "https://charts.helm.sh/stable";
+	private static final String LOCK_FILE = ".helm.lock";
+	private static final String CHECKSUM_FILE = "archive.sha256";
+	private static final String ENGINE_HELM = "helm";
+	private static final String ENGINE_JAVA = "java";
 
 	/**
 	 * Set this to <code>true</code> to skip invoking init goal.
@@ -111,6 +119,25 @@ public class InitMojo extends AbstractHelmMojo {
 	@Parameter(property = "helm.repo.add.pass-credentials", defaultValue = "false")
 	private boolean repositoryAddPassCredentials;
 
+	/**
+	 * Engine used to add repositories: "helm" invokes "helm repo add" for each repository, "java" updates
+	 * "repositories.yaml" once in-process, skips repositories already present with the same configuration and
+	 * fetches the indexes of new repositories concurrently.
+	 *
+	 * @since 6.18.0
+	 */
+	@Parameter(property = "helm.repo.add.engine", defaultValue = ENGINE_HELM)
+	private String repositoryAddEngine;
+
+	/**
+	 * Maximum number of repository indexes fetched at the same time by engine "java". Accepts a number, "cores" or a
+	 * multiple of cores like "2C".
+	 *
+	 * @since 6.18.0
+	 */
+	@Parameter(property = "helm.repo.add.parallelism", defaultValue = "4")
+	private String repositoryAddParallelism;
+
 	/**
 	 * Download url of helm.
 	 *
@@ -152,6 +179,66 @@ public class InitMojo extends AbstractHelmMojo {
 	@Parameter(property = "helm.init.fallbackBinaryDownload", defaultValue = "false")
 	private boolean fallbackBinaryDownload;
 
+	/**
+	 * Set this to <code>true</code> to download helm once per version and platform into a cache shared by all modules
+	 * and builds. Modules link the cached executable into "helm.executableDirectory".
+	 *
+	 * @since 6.18.0
+	 */
+	@Parameter(property = "helm.binaryCache", defaultValue = "false")
+	private boolean binaryCache;
+
+	/**
+	 * Directory for cached helm executables (default "helm.tmpDir"/binaries).
+	 *
+	 * @since 6.18.0
+	 */
+	@Parameter(property = "helm.binaryCacheDirectory")
+	private File binaryCacheDirectory;
+
+	/**
+	 * Set this to <code>true</code> to verify the downloaded helm archive against the SHA-256 checksum published next
+	 * to it with suffix ".sha256sum".
+	 *
+	 * @since 6.18.0
+	 */
+	@Parameter(property = "helm.downloadVerification", defaultValue = "false")
+	private boolean downloadVerification;
+
+	/**
+	 * Expected SHA-256 checksum of the downloaded helm archive, enables verification without fetching the published
+	 * checksum.
+	 *
+	 * @since 6.18.0
+	 */
+	@Parameter(property = "helm.downloadChecksum")
+	private String helmDownloadChecksum;
+
+	/**
+	 * Timeout in seconds for connecting to the helm download server.
+	 *
+	 * @since 6.18.0
+	 */
+	@Parameter(property = "helm.downloadConnectTimeout", defaultValue = "30")
+	private Integer helmDownloadConnectTimeout;
+
+	/**
+	 * Timeout in seconds for reading from the helm download server without receiving data.
+	 *
+	 * @since 6.18.0
+	 */
+	@Parameter(property = "helm.downloadReadTimeout", defaultValue = "60")
+	private Integer helmDownloadReadTimeout;
+
+	/**
+	 * Number of retries for a failed helm download. Retries are delayed with exponential backoff and resume partial
+	 * downloads if the server supports range requests.
+	 *
+	 * @since 6.18.0
+	 */
+	@Parameter(property = "helm.downloadRetries", defaultValue = "3")
+	private Integer helmDownloadRetries;
+
 	@Override
 	public void execute() throws MojoExecutionException {
 
@@ -188,46 +275,81 @@ public class InitMojo extends AbstractHelmMojo {
 			downloadAndUnpackHelm();
 		}
 
+		RepositoryRegistry registry = getRepositoryRegistryForEngine();
+
 		if (addDefaultRepo) {
 			HelmRepository stableHelmRepo = new HelmRepository();
 			stableHelmRepo.setName("stable");
 			stableHelmRepo.setUrl(STABLE_HELM_REPO);
-			addRepository(stableHelmRepo, false);
+			addRepository(registry, stableHelmRepo, false);
 		}
 
 		if (addUploadRepos) {
 			if (getUploadRepoStable() != null) {
-				addRepository(getUploadRepoStable(), true);
+				addRepository(registry, getUploadRepoStable(), true);
 			}
 
 			// add the upload snapshot repo only if it's name differs to the upload repo stable name
 			if (getUploadRepoSnapshot() != null && (getUploadRepoStable() == null
 					|| !getUploadRepoStable().getName().equals(getUploadRepoSnapshot().getName()))) {
-				addRepository(getUploadRepoSnapshot(), true);
+				addRepository(registry, getUploadRepoSnapshot(), true);
 			}
 		}
 
 		if (helmExtraRepos != null) {
 			for (HelmRepository repository : helmExtraRepos) {
-				addRepository(repository, true);
+				addRepository(registry, repository, true);
 			}
 		}
+
+		if (registry != null) {
+			registry.register();
+		}
 	}
 
-	private void addRepository(HelmRepository repository, boolean authenticationRequired)
-			throws MojoExecutionException {
+	private void addRepository(RepositoryRegistry registry, HelmRepository repository,
+			boolean authenticationRequired) throws MojoExecutionException {
 		getLog().info("Adding repo [" + repository + "]");
+		boolean forceUpdate = repositoryAddForceUpdate || repository.isForceUpdate();
+		boolean passCredentials = repositoryAddPassCredentials || repository.isPassCredentials();
+		PasswordAuthentication auth = authenticationRequired ? getAuthentication(repository) : null;
+		if (registry != null) {
+			RepositoriesFile.Entry entry = new RepositoriesFile.Entry()
+					.setName(repository.getName())
+					.setUrl(repository.getUrl())
+					.setPassCredentialsAll(passCredentials);
+			if (auth != null) {
+				entry.setUsername(auth.getUserName()).setPassword(String.valueOf(auth.getPassword()));
+			}
+			registry.add(entry, forceUpdate);
+			return;
+		}
 		HelmExecutable helm = helm()
 				.arguments("repo", "add", repository.getName(), repository.getUrl())
-				.flag("force-update", repositoryAddForceUpdate || repository.isForceUpdate())
-				.flag("pass-credentials", repositoryAddPassCredentials || repository.isPassCredentials());
-		PasswordAuthentication auth = authenticationRequired ? getAuthentication(repository) : null;
+				.flag("force-update", forceUpdate)
+				.flag("pass-credentials", passCredentials);
 		if (auth != null) {
 			helm.flag("username", auth.getUserName()).flag("password", String.valueOf(auth.getPassword()));
 		}
 		helm.execute("Unable add repo");
 	}
 
+	/**
+	 * Registry for engine "java", <code>null</code> for engine "helm". Offline the registry is used for both engines,
+	 * because it can add repositories from cached indexes.
+	 */
+	private RepositoryRegistry getRepositoryRegistryForEngine() throws MojoExecutionException {
+		if (!ENGINE_HELM.equals(repositoryAddEngine) && !ENGINE_JAVA.equals(repositoryAddEngine)) {
+			throw new MojoExecutionException(
+					"Unknown repository engine '" + repositoryAddEngine + "', use 'helm' or 'java'.");
+		}
+		if (ENGINE_HELM.equals(repositoryAddEngine) && !isOffline()) {
+			return null;
+		}
+		return getRepositoryRegistry()
+				.setParallelism(ParallelExecutor.parseParallelism(repositoryAddParallelism));
+	}
+
 	@SneakyThrows(MalformedURLException.class)
 	private void downloadAndUnpackHelm() throws MojoExecutionException {
 
@@ -247,7 +369,6 @@ public class InitMojo extends AbstractHelmMojo {
 				: helmDownloadUrl;
 
 		getLog().debug("Downloading Helm: " + url);
-		boolean found = false;
 
 		Server downloadServer = getSettings().getServer(helmDownloadServerId);
 
@@ -277,8 +398,136 @@ public class InitMojo extends AbstractHelmMojo {
 			});
 		}
 
-		try (InputStream dis = openConnection(url).getInputStream();
-				InputStream cis = createCompressorInputStream(dis);
+		// only one thread or process downloads, others wait and use the result
+
+		try {
+			Files.createDirectories(directory);
+			FileMutex.withLock(directory.resolve(LOCK_FILE), () -> {
+				if (Files.exists(executable)) {
+					getLog().info("Found helm executable at " + executable + ", downloaded concurrently.");
+				} else if (binaryCache) {
+					linkHelm(getCachedHelm(url), executable);
+				} else {
+					failIfOffline(executable, url);
+					downloadHelm(url, executable, isVerificationEnabled() ? getExpectedChecksum(url) : null);
+				}
+				return null;
+			});
+		} catch (IOException e) {
+			throw new MojoExecutionException("Unable to install helm executable at " + executable, e);
+		}
+	}
+
+	/**
+	 * Get executable from shared cache, download into cache once per version and platform.
+	 */
+	private Path getCachedHelm(URL url) throws IOException, MojoExecutionException {
+		String key = helmDownloadUrl == null
+				? String.format("v%s-%s-%s", getHelmVersion(), getOperatingSystem(), getArchitecture())
+				: "url-" + new Fingerprint().add("url", url.toString()).hex();
+		Path cacheDirectory = (binaryCacheDirectory != null
+				? binaryCacheDirectory.toPath()
+				: getTmpDir().toPath().resolve("binaries")).resolve(key);
+		Path cached = cacheDirectory.resolve(getHelmExecutableName());
+		Files.createDirectories(cacheDirectory);
+		Path checksumFile = cacheDirectory.resolve(CHECKSUM_FILE);
+		return FileMutex.withLock(cacheDirectory.resolve(LOCK_FILE), () -> {
+			if (Files.isRegularFile(cached) && (!isVerificationEnabled() || isVerified(checksumFile))) {
+				getLog().info("Found helm executable in cache at " + cached);
+			} else {
+				failIfOffline(cached, url);
+				String checksum = isVerificationEnabled() ? getExpectedChecksum(url) : null;
+				Files.deleteIfExists(cached);
+				Files.deleteIfExists(checksumFile);
+				downloadHelm(url, cached, checksum);
+				if (checksum != null) {
+					Files.write(checksumFile, checksum.getBytes(StandardCharsets.US_ASCII));
+				}
+			}
+			return cached;
+		});
+	}
+
+	private void failIfOffline(Path executable, URL url) throws MojoExecutionException {
+		if (isOffline()) {
+			throw new MojoExecutionException("Helm executable " + executable + " is not installed or cached and Maven"
+					+ " is offline, run once online to download " + url);
+		}
+	}
+
+	/**
+	 * Download archive into a partial file next to the executable, so an interrupted download is resumed by the next
+	 * attempt or build. The executable is extracted into a temporary directory and moved to target afterwards, so no
+	 * truncated executable is visible to others.
+	 */
+	private void downloadHelm(URL url, Path executable, String checksum) throws IOException, MojoExecutionException {
+		Path part = executable.resolveSibling("." + executable.getFileName() + "-"
+				+ new Fingerprint().add("url", url.toString()).hex().substring(0, 12) + ".part");
+		String actual;
+		try {
+			actual = getDownloader().download(url, part);
+		} catch (IOException e) {
+			throw new MojoExecutionException("Unable to download helm executable from " + url, e);
+		}
+		if (checksum != null) {
+			if (!actual.equals(checksum)) {
+				Files.deleteIfExists(part);
+				throw new MojoExecutionException("Checksum mismatch for " + url + ": expected " + checksum
+						+ " but was " + actual);
+			}
+			getLog().info("Verified checksum " + checksum + " of " + url);
+		}
+		Path temp = Files.createTempDirectory(executable.getParent(), "download");
+		try {
+			Files.move(unpackHelm(part, temp), executable, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			FileUtils.deleteDirectory(temp.toFile());
+			Files.deleteIfExists(part);
+		}
+	}
+
+	private HttpDownloader getDownloader() {
+		return new HttpDownloader(getLog(), this::openConnection)
+				.setConnectTimeout(Duration.ofSeconds(helmDownloadConnectTimeout))
+				.setReadTimeout(Duration.ofSeconds(helmDownloadReadTimeout))
+				.setRetries(helmDownloadRetries);
+	}
+
+	private boolean isVerificationEnabled() {
+		return downloadVerification || StringUtils.isNotBlank(helmDownloadChecksum);
+	}
+
+	/**
+	 * A cached executable is trusted if it was verified on download against the expected checksum.
+	 */
+	private boolean isVerified(Path checksumFile) throws IOException {
+		if (!Files.isRegularFile(checksumFile)) {
+			return false;
+		}
+		String verified = new String(Files.readAllBytes(checksumFile), StandardCharsets.US_ASCII);
+		return StringUtils.isBlank(helmDownloadChecksum) || verified.equalsIgnoreCase(helmDownloadChecksum.trim());
+	}
+
+	private String getExpectedChecksum(URL url) throws IOException, MojoExecutionException {
+		if (StringUtils.isNotBlank(helmDownloadChecksum)) {
+			return helmDownloadChecksum.trim().toLowerCase(Locale.US);
+		}
+		URL checksumUrl = new URL(url + ".sha256sum");
+		getLog().debug("Downloading checksum: " + checksumUrl);
+		// format of sha256sum: "<checksum>  <filename>"
+		String content = new String(getDownloader().fetch(checksumUrl), StandardCharsets.US_ASCII).trim();
+		String checksum = content.split("\\s+")[0].toLowerCase(Locale.US);
+		if (!checksum.matches("[0-9a-f]{64}")) {
+			throw new MojoExecutionException("Invalid checksum at " + checksumUrl + ": " + content);
+		}
+		return checksum;
+	}
+
+	private Path unpackHelm(Path archive, Path directory) throws MojoExecutionException {
+
+		Path helm = null;
+		try (InputStream fis = Files.newInputStream(archive);
+				InputStream cis = createCompressorInputStream(fis);
 				ArchiveInputStream<?> is = createArchiverInputStream(cis)) {
 
 			// create directory if not present
@@ -286,7 +535,7 @@ public class InitMojo extends AbstractHelmMojo {
 
 			// get helm executable entry
 			ArchiveEntry entry = null;
-			while (!found && (entry = is.getNextEntry()) != null) {
+			while (helm == null && (entry = is.getNextEntry()) != null) {
 
 				String name = entry.getName();
 				if (entry.isDirectory() || !name.endsWith("helm.exe") && !name.endsWith("helm")) {
@@ -295,50 +544,45 @@ public class InitMojo extends AbstractHelmMojo {
 				}
 
 				getLog().debug("Use archive entry with name: " + name);
-				Path helm = directory.resolve(name.endsWith(".exe") ? "helm.exe" : "helm");
+				helm = directory.resolve(name.endsWith(".exe") ? "helm.exe" : "helm");
 				try (FileOutputStream output = new FileOutputStream(helm.toFile())) {
 					IOUtils.copy(is, output);
 				}
 
 				addExecPermission(helm);
-				found = true;
 			}
 
 		} catch (IOException e) {
-			throw new MojoExecutionException("Unable to download and extract helm executable.", e);
+			throw new MojoExecutionException("Unable to extract helm executable.", e);
 		}
 
-		if (!found) {
+		if (helm == null) {
 			throw new MojoExecutionException("Unable to find helm executable in tar file.");
 		}
+		return helm;
 	}
 
-	private URLConnection openConnection(URL url) throws IOException, MojoExecutionException {
-
-		Proxy proxy = settings.getProxies().stream()
-				.filter(p -> p.isActive() && Stream
-						.of(Optional.ofNullable(p.getNonProxyHosts()).orElse("").split("\\|"))
-						.noneMatch(url.getHost()::equals))
-				.findFirst()
-				.map(p -> {
-					getLog().debug("Use proxy [" + p.getId() + "] for [" + url + "]");
-					return new Proxy(
-							Optional.ofNullable(p.getProtocol()).map(String::toUpperCase)
-									.map(Proxy.Type::valueOf).orElse(Proxy.Type.HTTP),
-							new InetSocketAddress(p.getHost(), p.getPort()));
-				})
-				.orElse(null);
-
-		URLConnection connection;
-		if (proxy == null) {
-			connection = url.openConnection();
-		} else {
-			connection = url.openConnection(proxy);
-			if (connection instanceof HttpsURLConnection) {
-				TLSHelper.insecure((HttpsURLConnection) connection);
-			}
+	/**
+	 * Link cached executable into module, falls back from hardlink to symlink to copy depending on file system.
+	 */
+	private void linkHelm(Path cached, Path executable) throws IOException {
+		try {
+			Files.createLink(executable, cached);
+			getLog().info("Linked helm executable " + executable + " to " + cached);
+			return;
+		} catch (IOException | UnsupportedOperationException e) {
+			getLog().debug("Unable to create hardlink to " + cached, e);
+		}
+		try {
+			Files.createSymbolicLink(executable, cached.toAbsolutePath());
+			getLog().info("Linked helm executable " + executable + " to " + cached);
+			return;
+		} catch (IOException | UnsupportedOperationException e) {
+			getLog().debug("Unable to create symlink to " + cached, e);
 		}
-		return connection;
+		Files.copy(cached, executable);
+		addExecPermission(executable);
+		getLog().info("Copied helm executable from " + cached + " to " + executable);
 	}
 
 	private void addExecPermission(Path helm) throws IOException {
@@ -69,6 +69,14 @@ public class InstallMojo extends AbstractHandleMojo {
 	@Parameter(property = "helm.install.skip", defaultValue = "true")
 	private boolean skipInstall;
 
+	/**
+	 * Time in seconds after which a single helm command of this goal is killed. Overwrites "helm.executionTimeout".
+	 *
+	 * @since 6.18.0
+	 */
+	@Parameter(property = "helm.install.executionTimeout")
+	private Integer installExecutionTimeout;
+
 	@Override
 	public void execute() throws MojoExecutionException, MojoFailureException {
 
@@ -91,4 +99,9 @@ public class InstallMojo extends AbstractHandleMojo {
 					.execute("Failed to deploy helm chart");
 		}
 	}
+
+	@Override
+	public Integer getExecutionTimeout() {
+		return installExecutionTimeout != null ? installExecutionTimeout : super.getExecutionTimeout();
+	}
 }
@@ -1,7 +1,5 @@
 package io.kokuwa.maven.helm;
 
-import java.nio.file.Path;
-
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
@@ -52,13 +50,12 @@ public class LintMojo extends AbstractHelmWithValueOverrideMojo {
 			return;
 		}
 
-		for (Path chartDirectory : getChartDirectories()) {
+		forEachChartDirectoryInDependencyOrder(chartDirectory -> {
 			getLog().info("\n\nTesting chart " + chartDirectory + "...");
-			helm()
+			executeCached(helm()
 					.arguments("lint", chartDirectory)
 					.flag("strict", lintStrict)
-					.flag("quiet", lintQuiet)
-					.execute("There are linting issues");
-		}
+					.flag("quiet", lintQuiet), chartDirectory, "There are linting issues");
+		});
 	}
 }
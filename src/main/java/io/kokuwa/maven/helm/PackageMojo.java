@@ -1,9 +1,19 @@
 package io.kokuwa.maven.helm;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.Clock;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
@@ -11,7 +21,17 @@ import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.codehaus.plexus.util.StringUtils;
 
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.yaml.YAMLMapper;
+
+import io.kokuwa.maven.helm.pojo.HelmChart;
 import io.kokuwa.maven.helm.pojo.HelmExecutable;
+import io.kokuwa.maven.helm.pojo.PackageFingerprint;
+import io.kokuwa.maven.helm.pojo.PackageManifest;
+import io.kokuwa.maven.helm.util.ChartPackager;
+import io.kokuwa.maven.helm.util.Fingerprint;
 import lombok.Setter;
 
 /**
@@ -25,6 +45,13 @@ import lombok.Setter;
 @Setter
 public class PackageMojo extends AbstractHelmMojo {
 
+	private static final ObjectMapper MAPPER = new ObjectMapper().findAndRegisterModules();
+	private static final ObjectMapper YAML_MAPPER = new YAMLMapper()
+			.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+	private static final String FINGERPRINT_SUFFIX = ".fingerprint";
+	private static final String ENGINE_HELM = "helm";
+	private static final String ENGINE_JAVA = "java";
+
 	/**
 	 * Set this to <code>true</code> to skip invoking package goal.
 	 *
@@ -81,6 +108,42 @@ public class PackageMojo extends AbstractHelmMojo {
 	@Parameter(property = "helm.chartVersion.timestampFormat", defaultValue = "yyyyMMddHHmmss")
 	private String timestampFormat;
 
+	/**
+	 * Set this to <code>true</code> to package charts even if the archive is up to date.
+	 *
+	 * @since 6.18.0
+	 */
+	@Parameter(property = "helm.package.force", defaultValue = "false")
+	private boolean packageForce;
+
+	/**
+	 * Engine used to create chart archives: "helm" invokes "helm package", "java" creates archives in-process
+	 * without starting helm. Engine "java" does not support signing.
+	 *
+	 * @since 6.18.0
+	 */
+	@Parameter(property = "helm.package.engine", defaultValue = ENGINE_HELM)
+	private String packageEngine;
+
+	/**
+	 * Set this to <code>true</code> to create byte-identical archives for the same chart and version: entries are
+	 * sorted, owners and modes fixed and all timestamps are taken from "project.build.outputTimestamp". Archives of
+	 * engine "helm" are normalized after packaging, except signed archives because the provenance file contains the
+	 * digest of the original archive.
+	 *
+	 * @since 6.18.0
+	 */
+	@Parameter(property = "helm.package.reproducible", defaultValue = "false")
+	private boolean packageReproducible;
+
+	/**
+	 * Timestamp for reproducible archives as ISO-8601 or seconds since epoch, Unix epoch if not set.
+	 *
+	 * @since 6.18.0
+	 */
+	@Parameter(defaultValue = "${project.build.outputTimestamp}", readonly = true)
+	private String outputTimestamp;
+
 	@Override
 	public void execute() throws MojoExecutionException {
 
@@ -98,24 +161,220 @@ public class PackageMojo extends AbstractHelmMojo {
 			getLog().info("Setting chart version to " + chartVersion);
 		}
 
-		for (Path chartDirectory : getChartDirectories()) {
-			getLog().info("Packaging chart " + chartDirectory + "...");
+		boolean javaEngine = isJavaEngine();
+		Instant timestamp = packageReproducible ? getReproducibleTimestamp() : null;
+		String version = chartVersion;
+		List<PackageManifest.Archive> archives = Collections.synchronizedList(new ArrayList<>());
+		forEachChartDirectoryInDependencyOrder(chartDirectory -> {
+			HelmChart chart = readChart(chartDirectory);
+			String archiveVersion = version != null ? version : chart.getVersion();
+			Path archive = getOutputDirectory().resolve(chart.getName() + "-" + archiveVersion + ".tgz");
+			packageChart(chartDirectory, archive, version, javaEngine, timestamp);
+			if (Files.isRegularFile(archive)) {
+				archives.add(toManifestArchive(archive, chart.getName(), archiveVersion));
+			} else {
+				getLog().warn("Chart archive " + archive + " not found after packaging, not added to manifest.");
+			}
+		});
+		writeManifest(archives);
+	}
+
+	private void packageChart(Path chartDirectory, Path archive, String version, boolean javaEngine,
+			Instant timestamp) throws MojoExecutionException {
+
+		Path fingerprintFile = archive.resolveSibling(archive.getFileName() + FINGERPRINT_SUFFIX);
+		PackageFingerprint fingerprint = getFingerprint(chartDirectory, version, javaEngine).setTimestamp(timestamp);
+		if (!packageForce && isUpToDate(archive, fingerprintFile, fingerprint)) {
+			getLog().info("Chart archive " + archive + " is up to date, skip packaging.");
+			return;
+		}
+
+		getLog().info("Packaging chart " + chartDirectory + "...");
+
+		if (javaEngine) {
+			try {
+				new ChartPackager()
+						.setTimestamp(timestamp)
+						.pack(chartDirectory, getOutputDirectory(), version, appVersion);
+			} catch (IOException e) {
+				throw new MojoExecutionException("Unable to package chart at " + chartDirectory, e);
+			}
+			writeFingerprint(fingerprintFile, fingerprint);
+			return;
+		}
+
+		HelmExecutable helm = helm()
+				.arguments("package", chartDirectory)
+				.flag("destination", getOutputDirectory())
+				.flag("version", version)
+				.flag("app-version", appVersion);
+
+		if (isSigningEnabled()) {
+			getLog().info("Enable signing");
+			helm.flag("sign").flag("keyring", keyring).flag("key", key);
+			if (StringUtils.isNotEmpty(passphrase)) {
+				helm.flag("passphrase-file", "-").setStdin(passphrase);
+			}
+		}
 
-			HelmExecutable helm = helm()
-					.arguments("package", chartDirectory)
-					.flag("destination", getOutputDirectory())
-					.flag("version", chartVersion)
-					.flag("app-version", appVersion);
+		helm.execute("Unable to package chart at " + chartDirectory);
+		if (timestamp != null) {
+			normalize(archive, timestamp);
+		}
+		writeFingerprint(fingerprintFile, fingerprint);
+	}
+
+	private PackageManifest.Archive toManifestArchive(Path archive, String name, String version)
+			throws MojoExecutionException {
+		Path provenance = archive.resolveSibling(archive.getFileName() + ".prov");
+		try {
+			return new PackageManifest.Archive()
+					.setPath(getOutputDirectory().relativize(archive).toString())
+					.setSha256(Fingerprint.digest(archive))
+					.setSize(Files.size(archive))
+					.setName(name)
+					.setVersion(version)
+					.setProvenance(isSigningEnabled() && Files.isRegularFile(provenance)
+							? getOutputDirectory().relativize(provenance).toString()
+							: null);
+		} catch (IOException e) {
+			throw new MojoExecutionException("Unable to calculate digest of " + archive, e);
+		}
+	}
 
-			if (StringUtils.isNotEmpty(keyring) && StringUtils.isNotEmpty(key)) {
-				getLog().info("Enable signing");
-				helm.flag("sign").flag("keyring", keyring).flag("key", key);
-				if (StringUtils.isNotEmpty(passphrase)) {
-					helm.flag("passphrase-file", "-").setStdin(passphrase);
+	/**
+	 * Write manifest of archives. Archives recorded by other executions within the same build are kept, archives of
+	 * previous builds are dropped.
+	 */
+	private void writeManifest(List<PackageManifest.Archive> archives) throws MojoExecutionException {
+		Path manifestFile = getOutputDirectory().resolve(PACKAGE_MANIFEST);
+		Long build = getSession() == null || getSession().getRequest().getStartTime() == null
+				? null
+				: getSession().getRequest().getStartTime().getTime();
+		PackageManifest manifest = new PackageManifest().setBuild(build);
+		try {
+			if (build != null && Files.isRegularFile(manifestFile)) {
+				PackageManifest existing = MAPPER.readValue(manifestFile.toFile(), PackageManifest.class);
+				if (build.equals(existing.getBuild())) {
+					manifest.getArchives().addAll(existing.getArchives());
 				}
 			}
+		} catch (IOException e) {
+			getLog().debug("Unable to read existing manifest " + manifestFile, e);
+		}
+		for (PackageManifest.Archive archive : archives) {
+			manifest.getArchives().removeIf(a -> a.getPath().equals(archive.getPath()));
+			manifest.getArchives().add(archive);
+		}
+		manifest.getArchives().sort(Comparator.comparing(PackageManifest.Archive::getPath));
+		try {
+			Files.createDirectories(getOutputDirectory());
+			write(manifestFile, MAPPER.writerWithDefaultPrettyPrinter(), manifest);
+		} catch (IOException e) {
+			throw new MojoExecutionException("Unable to write package manifest " + manifestFile, e);
+		}
+	}
+
+	private boolean isJavaEngine() throws MojoExecutionException {
+		if (ENGINE_HELM.equals(packageEngine)) {
+			return false;
+		}
+		if (!ENGINE_JAVA.equals(packageEngine)) {
+			throw new MojoExecutionException("Unknown package engine '" + packageEngine + "', use 'helm' or 'java'.");
+		}
+		if (isSigningEnabled()) {
+			throw new MojoExecutionException("Signing is not supported by package engine 'java', use 'helm'.");
+		}
+		return true;
+	}
+
+	private Instant getReproducibleTimestamp() throws MojoExecutionException {
+		// same rules as maven: unset or single character disables timestamp
+		if (outputTimestamp == null || outputTimestamp.length() < 2) {
+			return Instant.EPOCH;
+		}
+		try {
+			return outputTimestamp.chars().allMatch(Character::isDigit)
+					? Instant.ofEpochSecond(Long.parseLong(outputTimestamp))
+					: OffsetDateTime.parse(outputTimestamp).toInstant();
+		} catch (NumberFormatException | DateTimeParseException e) {
+			throw new MojoExecutionException("Invalid project.build.outputTimestamp '" + outputTimestamp
+					+ "', use ISO-8601 like 2024-01-01T00:00:00Z or seconds since epoch.", e);
+		}
+	}
+
+	private void normalize(Path archive, Instant timestamp) throws MojoExecutionException {
+		if (isSigningEnabled()) {
+			getLog().warn("Chart archive " + archive + " is signed, skip normalizing to keep provenance valid.");
+			return;
+		}
+		try {
+			new ChartPackager().setTimestamp(timestamp).normalize(archive);
+		} catch (IOException e) {
+			throw new MojoExecutionException("Unable to normalize chart archive " + archive, e);
+		}
+	}
+
+	private boolean isSigningEnabled() {
+		return StringUtils.isNotEmpty(keyring) && StringUtils.isNotEmpty(key);
+	}
+
+	private HelmChart readChart(Path chartDirectory) throws MojoExecutionException {
+		Path chartFile = chartDirectory.resolve("Chart.yaml");
+		try {
+			return YAML_MAPPER.readValue(chartFile.toFile(), HelmChart.class);
+		} catch (IOException e) {
+			throw new MojoExecutionException("Unable to read chart from " + chartFile, e);
+		}
+	}
+
+	private PackageFingerprint getFingerprint(Path chartDirectory, String version, boolean javaEngine)
+			throws MojoExecutionException {
+		try {
+			return new PackageFingerprint()
+					.setSource(new Fingerprint().addDirectory("chart", chartDirectory).hex())
+					.setChartVersion(version)
+					.setAppVersion(appVersion)
+					.setSigningKey(isSigningEnabled() ? key + "@" + keyring : null)
+					.setEngine(javaEngine ? ENGINE_JAVA : ENGINE_HELM)
+					.setHelm(javaEngine ? null : Fingerprint.digest(getHelmExecutablePath()));
+		} catch (IOException e) {
+			throw new MojoExecutionException("Unable to calculate fingerprint of " + chartDirectory, e);
+		}
+	}
+
+	private boolean isUpToDate(Path archive, Path fingerprintFile, PackageFingerprint fingerprint) {
+		if (!Files.isRegularFile(archive) || !Files.isRegularFile(fingerprintFile)) {
+			return false;
+		}
+		if (fingerprint.getSigningKey() != null
+				&& !Files.isRegularFile(archive.resolveSibling(archive.getFileName() + ".prov"))) {
+			return false;
+		}
+		try {
+			return fingerprint.equals(MAPPER.readValue(fingerprintFile.toFile(), PackageFingerprint.class));
+		} catch (IOException e) {
+			getLog().debug("Unable to read fingerprint " + fingerprintFile, e);
+			return false;
+		}
+	}
+
+	private void writeFingerprint(Path fingerprintFile, PackageFingerprint fingerprint) {
+		try {
+			write(fingerprintFile, MAPPER.writer(), fingerprint);
+		} catch (IOException e) {
+			getLog().warn("Unable to write fingerprint " + fingerprintFile, e);
+		}
+	}
 
-			helm.execute("Unable to package chart at " + chartDirectory);
+	/** Write via temporary file and atomic move, so readers never see a partially written file. */
+	private static void write(Path file, ObjectWriter writer, Object value) throws IOException {
+		Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+		try {
+			writer.writeValue(temp.toFile(), value);
+			Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temp);
 		}
 	}
 
@@ -3,6 +3,7 @@ package io.kokuwa.maven.helm;
 import java.io.File;
 import java.net.PasswordAuthentication;
 import java.nio.file.Path;
+import java.util.Optional;
 
 import org.apache.maven.artifact.versioning.ComparableVersion;
 import org.apache.maven.plugin.MojoExecutionException;
@@ -64,6 +65,14 @@ public class PushMojo extends AbstractHelmMojo {
 	@Parameter(property = "helm.push.skip", defaultValue = "false")
 	private boolean skipPush;
 
+	/**
+	 * Time in seconds after which a single helm command of this goal is killed. Overwrites "helm.executionTimeout".
+	 *
+	 * @since 6.18.0
+	 */
+	@Parameter(property = "helm.push.executionTimeout")
+	private Integer pushExecutionTimeout;
+
 	@Override
 	public void execute() throws MojoExecutionException {
 
@@ -78,17 +87,14 @@ public class PushMojo extends AbstractHelmMojo {
 			return;
 		}
 
-		if (isUseLocalHelmBinary()) {
+		Optional<ComparableVersion> helmVersion = getExecutableHelmVersion().map(ComparableVersion::new);
+		if (!helmVersion.isPresent()) {
 			getLog().debug("helm version unknown");
+		} else if (helmVersion.get().compareTo(new ComparableVersion("3.8.0")) < 0) {
+			getLog().error("your helm version is " + helmVersion.get() + ", it's required to be >=3.8.0");
+			throw new IllegalStateException();
 		} else {
-			ComparableVersion helmVersion = new ComparableVersion(getHelmVersion());
-			ComparableVersion minimumHelmVersion = new ComparableVersion("3.8.0");
-			if (helmVersion.compareTo(minimumHelmVersion) < 0) {
-				getLog().error("your helm version is " + helmVersion + ", it's required to be >=3.8.0");
-				throw new IllegalStateException();
-			} else {
-				getLog().debug("helm version minimum satisfied. the version is: " + helmVersion);
-			}
+			getLog().debug("helm version minimum satisfied. the version is: " + helmVersion.get());
 		}
 
 		PasswordAuthentication authentication = getAuthentication(repository);
@@ -116,4 +122,9 @@ public class PushMojo extends AbstractHelmMojo {
 					.execute("Upload failed");
 		}
 	}
+
+	@Override
+	public Integer getExecutionTimeout() {
+		return pushExecutionTimeout != null ? pushExecutionTimeout : super.getExecutionTimeout();
+	}
 }
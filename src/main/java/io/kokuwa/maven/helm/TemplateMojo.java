@@ -1,7 +1,6 @@
 package io.kokuwa.maven.helm;
 
 import java.io.File;
-import java.nio.file.Path;
 
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
@@ -10,6 +9,7 @@ import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.codehaus.plexus.util.StringUtils;
 
+import io.kokuwa.maven.helm.pojo.HelmExecutable;
 import lombok.Setter;
 
 /**
@@ -91,17 +91,22 @@ public class TemplateMojo extends AbstractHelmWithValueOverrideMojo {
 			return;
 		}
 
-		for (Path chartDirectory : getChartDirectories()) {
+		forEachChartDirectory(chartDirectory -> {
 			getLog().info(String.format("\n\nPerform template for chart %s...", chartDirectory));
-			helm()
+			HelmExecutable helm = helm()
 					.arguments(action, chartDirectory)
 					.arguments(getArguments())
 					.flag("output-dir", templateOutputDir)
 					.flag("name-template", templateNameTemplate)
 					.flag("generate-name", templateGenerateName)
-					.flag("plain-http", isPlainHttp(templatePlainHttp))
-					.execute("There are test failures");
-		}
+					.flag("plain-http", isPlainHttp(templatePlainHttp));
+			if (templateOutputDir != null) {
+				// rendered files are not part of cached output
+				helm.execute("There are test failures");
+			} else {
+				executeCached(helm, chartDirectory, "There are test failures");
+			}
+		});
 	}
 
 	private Object[] getArguments() {
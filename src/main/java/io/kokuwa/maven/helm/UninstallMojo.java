@@ -76,6 +76,14 @@ public class UninstallMojo extends AbstractHandleMojo {
 	@Parameter(property = "helm.uninstall.skip", defaultValue = "true")
 	private boolean skipUninstall;
 
+	/**
+	 * Time in seconds after which a single helm command of this goal is killed. Overwrites "helm.executionTimeout".
+	 *
+	 * @since 6.18.0
+	 */
+	@Parameter(property = "helm.uninstall.executionTimeout")
+	private Integer uninstallExecutionTimeout;
+
 	@Override
 	public void execute() throws MojoExecutionException {
 
@@ -96,4 +104,11 @@ public class UninstallMojo extends AbstractHandleMojo {
 					.execute("Failed to deploy helm chart");
 		}
 	}
+
+	@Override
+	public Integer getExecutionTimeout() {
+		return uninstallExecutionTimeout != null
+				? uninstallExecutionTimeout
+				: super.getExecutionTimeout();
+	}
 }
@@ -73,6 +73,14 @@ public class UpgradeMojo extends AbstractHandleMojo {
 	@Parameter(property = "helm.upgrade.plain-http")
 	private Boolean upgradePlainHttp;
 
+	/**
+	 * Time in seconds after which a single helm command of this goal is killed. Overwrites "helm.executionTimeout".
+	 *
+	 * @since 6.18.0
+	 */
+	@Parameter(property = "helm.upgrade.executionTimeout")
+	private Integer upgradeExecutionTimeout;
+
 	@Override
 	public void execute() throws MojoExecutionException {
 
@@ -99,4 +107,9 @@ public class UpgradeMojo extends AbstractHandleMojo {
 					.execute("Error occurred while upgrading the chart");
 		}
 	}
+
+	@Override
+	public Integer getExecutionTimeout() {
+		return upgradeExecutionTimeout != null ? upgradeExecutionTimeout : super.getExecutionTimeout();
+	}
 }
@@ -9,6 +9,7 @@ import java.net.Authenticator;
 import java.net.HttpURLConnection;
 import java.net.PasswordAuthentication;
 import java.net.URL;
+import java.net.URLConnection;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -17,6 +18,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Base64;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 import javax.net.ssl.HttpsURLConnection;
 
@@ -38,6 +43,10 @@ import io.kokuwa.maven.helm.pojo.Catalog;
 import io.kokuwa.maven.helm.pojo.HelmChart;
 import io.kokuwa.maven.helm.pojo.HelmRepository;
 import io.kokuwa.maven.helm.pojo.RepoType;
+import io.kokuwa.maven.helm.util.ChartIndex;
+import io.kokuwa.maven.helm.util.Fingerprint;
+import io.kokuwa.maven.helm.util.HttpDownloader;
+import io.kokuwa.maven.helm.util.ParallelExecutor;
 import lombok.Setter;
 
 /**
@@ -120,6 +129,15 @@ public class UploadMojo extends AbstractHelmMojo {
 	@Parameter(property = "helm.upload.timeout", defaultValue = "30")
 	private Integer uploadVerificationTimeout;
 
+	/**
+	 * Maximum number of charts uploaded at the same time. Accepts a number, "cores" or a multiple of cores like "2C".
+	 * Defaults to sequential uploads, as repositories may not accept concurrent uploads.
+	 *
+	 * @since 6.18.0
+	 */
+	@Parameter(property = "helm.upload.parallelism", defaultValue = "1")
+	private String uploadParallelism;
+
 	@Override
 	public void execute() throws MojoExecutionException {
 
@@ -133,14 +151,28 @@ public class UploadMojo extends AbstractHelmMojo {
 		}
 
 		getLog().info("Uploading to " + getHelmUploadUrl() + "\n");
-		for (Path chart : getChartArchives()) {
-			getLog().info("Uploading " + chart + "...");
+		List<Path> charts = getChartArchives();
+		Map<Path, Catalog> uploaded = new ConcurrentHashMap<>();
+		try {
+			new ParallelExecutor(ParallelExecutor.parseParallelism(uploadParallelism)).execute(charts, chart -> {
+				getLog().info("Uploading " + chart + "...");
+				try {
+					uploaded.put(chart, uploadSingle(chart));
+				} catch (IOException e) {
+					throw new MojoExecutionException("Upload failed.", e);
+				}
+			});
+			getLog().info("Uploaded " + charts.size() + " charts");
+		} catch (MojoExecutionException | RuntimeException e) {
+			// keep upload failure, a failing catalog write is only attached to it
 			try {
-				uploadSingle(chart);
-			} catch (IOException e) {
-				throw new MojoExecutionException("Upload failed.", e);
+				writeCatalog(charts, uploaded);
+			} catch (MojoExecutionException | RuntimeException catalogFailure) {
+				e.addSuppressed(catalogFailure);
 			}
+			throw e;
 		}
+		writeCatalog(charts, uploaded);
 
 		if (!skipCatalog) {
 			Path catalogPath = getCatalogFilePath();
@@ -161,6 +193,22 @@ public class UploadMojo extends AbstractHelmMojo {
 		}
 	}
 
+	/**
+	 * Writes catalog once for all uploads, in order of archives and including uploads before a failure.
+	 *
+	 * @param charts all chart archives to upload
+	 * @param uploaded catalog entries of successful uploads
+	 * @throws MojoExecutionException when writing catalog data to the file
+	 */
+	private void writeCatalog(List<Path> charts, Map<Path, Catalog> uploaded) throws MojoExecutionException {
+		if (!skipCatalog && !uploaded.isEmpty()) {
+			catalogHelmChart(createCatalogContent(charts.stream()
+					.map(uploaded::get)
+					.filter(Objects::nonNull)
+					.collect(Collectors.toList())));
+		}
+	}
+
 	/**
 	 * Returns the proper upload URL based on the provided chart version. Charts w/ an SNAPSHOT suffix will be uploaded
 	 * to SNAPSHOT repo.
@@ -195,7 +243,7 @@ public class UploadMojo extends AbstractHelmMojo {
 			return catalogList;
 		}
 		try {
-			return Arrays.asList(MAPPER.readValue(catalogFile, Catalog[].class));
+			return new ArrayList<>(Arrays.asList(MAPPER.readValue(catalogFile, Catalog[].class)));
 		} catch (DatabindException e) {
 			getLog().warn("Unable to parse the existing catalog file content. Overwriting data.");
 		} catch (IOException e) {
@@ -207,13 +255,13 @@ public class UploadMojo extends AbstractHelmMojo {
 	/**
 	 * Reads the existing helm catalog content file and merges the new catalog data with it.
 	 *
-	 * @param data helm chart upload info represented as the Catalog object
+	 * @param data helm chart upload info represented as Catalog objects
 	 * @return pretty string json representation of the updated helm catalog contents
 	 */
-	private String createCatalogContent(Catalog data) throws MojoExecutionException {
+	private String createCatalogContent(List<Catalog> data) throws MojoExecutionException {
 		File file = getCatalogFilePath().toFile();
 		List<Catalog> catalog = readCatalog(file);
-		catalog.add(data);
+		catalog.addAll(data);
 		try {
 			return MAPPER.writeValueAsString(catalog);
 		} catch (JsonProcessingException e) {
@@ -254,7 +302,7 @@ public class UploadMojo extends AbstractHelmMojo {
 		}
 	}
 
-	private void uploadSingle(Path chart) throws MojoExecutionException, IOException {
+	private Catalog uploadSingle(Path chart) throws MojoExecutionException, IOException {
 		File fileToUpload = chart.toFile();
 		HelmRepository uploadRepo = getHelmUploadRepo();
 
@@ -305,20 +353,22 @@ public class UploadMojo extends AbstractHelmMojo {
 			}
 		}
 		getLog().info(message);
-		if (!skipCatalog) {
-			Catalog data = new Catalog(chart, connection.getURL(), connection.getContentType(), details);
-			catalogHelmChart(createCatalogContent(data));
-		}
+		Catalog catalog = new Catalog(chart, connection.getURL(), connection.getContentType(), details);
 		connection.disconnect();
+		return catalog;
 	}
 
 	private boolean verifyUpload(Path chartPath) throws MojoExecutionException {
-		String chartName;
+		HelmChart chart;
 		try {
-			chartName = YAML_MAPPER.readValue(chartPath.toFile(), HelmChart.class).getName();
+			chart = YAML_MAPPER.readValue(chartPath.toFile(), HelmChart.class);
 		} catch (IOException e) {
 			throw new MojoExecutionException("Unable to read chart from " + chartPath, e);
 		}
+		String chartVersion = getChartVersion() != null ? getChartVersion() : chart.getVersion();
+		if (chart.getName() == null || chartVersion == null) {
+			throw new MojoExecutionException("Unable to verify upload of " + chartPath + " without name and version");
+		}
 
 		long startTimeMillis = System.currentTimeMillis();
 		long timeoutMillis = uploadVerificationTimeout * 1000;
@@ -327,12 +377,11 @@ public class UploadMojo extends AbstractHelmMojo {
 
 		while (System.currentTimeMillis() < cutoffMillis && !verificationSuccess) {
 			try {
-				helm()
-					.arguments("show", "chart", chartName,
-						"--version", getChartVersion(), "--repo", getHelmUploadUrl())
-					.execute("show chart failed");
+				if (!isIndexed(chart.getName(), chartVersion)) {
+					throw new MojoExecutionException("Chart not found in repository index");
+				}
 				verificationSuccess = true;
-			} catch (Exception MojoExecutionException) {
+			} catch (MojoExecutionException | IOException e) {
 				getLog().info("Upload verification failed, retrying...");
 				try {
 					Thread.sleep(1000);
@@ -344,6 +393,35 @@ public class UploadMojo extends AbstractHelmMojo {
 		return verificationSuccess;
 	}
 
+	/**
+	 * Look up chart in repository index, this is what "helm show chart --repo" does without downloading the chart. An
+	 * unchanged index costs one conditional request and the lookup uses the binary index instead of parsing
+	 * "index.yaml".
+	 */
+	private boolean isIndexed(String chartName, String chartVersion) throws IOException {
+		URL url = new URL(getHelmUploadUrl().replaceAll("/+$", "") + "/index.yaml");
+		Path directory = getTmpDir().toPath().resolve("indexes")
+				.resolve(new Fingerprint().add("url", url.toString()).hex().substring(0, 16));
+		Files.createDirectories(directory);
+		Path index = directory.resolve("index.yaml");
+		new HttpDownloader(getLog(), this::openAuthenticatedConnection)
+				.setRetries(0)
+				.downloadIfModified(url, index, directory.resolve("index.meta.json"));
+		return ChartIndex.open(index, directory.resolve("index.bin")).find(chartName, chartVersion).isPresent();
+	}
+
+	private URLConnection openAuthenticatedConnection(URL url) throws IOException {
+		URLConnection connection = openConnection(url);
+		if (connection instanceof HttpURLConnection) {
+			try {
+				setBasicAuthHeader((HttpURLConnection) connection);
+			} catch (MojoExecutionException e) {
+				throw new IOException(e.getMessage(), e);
+			}
+		}
+		return connection;
+	}
+
 	private HttpURLConnection getConnectionForUploadToChartMuseum() throws IOException, MojoExecutionException {
 		HttpURLConnection connection = (HttpURLConnection) new URL(getHelmUploadUrl()).openConnection();
 		connection.setDoOutput(true);
@@ -5,16 +5,32 @@ import java.net.HttpURLConnection;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+import org.apache.maven.artifact.versioning.ComparableVersion;
+import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
+import org.apache.maven.artifact.versioning.InvalidVersionSpecificationException;
+import org.apache.maven.artifact.versioning.VersionRange;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.logging.Log;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import io.kokuwa.maven.helm.util.FileMutex;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 
 /**
  * Utility for Github requests with caching.
@@ -25,84 +41,285 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class Github {
 
-	private static final String LATEST_RELEASE_URL = "https://api.github.com/repos/helm/helm/releases/latest";
+	private static final int HTTP_TOO_MANY_REQUESTS = 429;
 	private static final String RELEASE_FILE = "github-release.json";
+	private static final String RELEASES_FILE = "github-releases.json";
+	private static final String LATEST = "latest";
+	private static final Pattern NEXT_LINK = Pattern.compile("<([^>]+)>;\\s*rel=\"next\"");
+	private static final List<String> WILDCARDS = Arrays.asList("x", "X", "*");
+
+	/** Mapper shared by all instances, registering modules is expensive. */
+	private static final ObjectMapper MAPPER = new ObjectMapper().findAndRegisterModules();
 
-	private final ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
 	private final Log log;
 	private final Path tmpDir;
 	private final String userAgent;
 	private final int cacheValidityDays;
+	/** Use cache regardless of age and never request Github. */
+	private final boolean offline;
+	/** Token to raise rate limit, <code>null</code> for anonymous requests. */
+	@Setter
+	private String token;
+	/** Base url of Github API for helm repository. */
+	@Setter
+	private String apiUrl = "https://api.github.com/repos/helm/helm";
+	/** State shared with other instances of the same build, by default only used by this instance. */
+	@Setter
+	private State state = new State();
 
-	public String getHelmVersion() throws MojoExecutionException {
+	/**
+	 * Check if version is a range like <code>3.14.x</code> or <code>[3.13,3.15)</code>.
+	 *
+	 * @param version configured version
+	 * @return <code>true</code> if version has to be resolved with {@link #getHelmVersion(String)}
+	 */
+	public static boolean isRange(String version) {
+		return version.startsWith("[") || version.startsWith("(")
+				|| Arrays.stream(version.split("\\.")).anyMatch(WILDCARDS::contains);
+	}
 
-		// strip leading v, this plugin worked without before and nothing should break
-		String tagName = getReleaseResponse().getTagName();
-		String version = tagName.startsWith("v") ? tagName.substring(1) : tagName;
+	public String getHelmVersion() throws MojoExecutionException {
+		return resolve(RELEASE_FILE, LATEST, () -> toVersion(getReleaseResponse().getTagName()));
+	}
 
-		log.info("Use " + version + " as helm version");
-		return version;
+	/**
+	 * Resolve newest helm release matching a range. Ranges are either wildcards like <code>3.14.x</code> or Maven
+	 * version ranges like <code>[3.13,3.15)</code>. Drafts and pre-releases are ignored.
+	 *
+	 * @param range version range
+	 * @return Newest matching version.
+	 * @throws MojoExecutionException Releases not available or no release matches.
+	 * @since 6.18.0
+	 */
+	public String getHelmVersion(String range) throws MojoExecutionException {
+		return resolve(RELEASES_FILE, range, () -> {
+			List<String> versions = new ArrayList<>();
+			for (ReleaseResponse release : getReleases()) {
+				if (!release.isDraft() && !release.isPrerelease() && matches(range, toVersion(release.getTagName()))) {
+					versions.add(toVersion(release.getTagName()));
+				}
+			}
+			return versions.stream()
+					.max(Comparator.comparing(ComparableVersion::new))
+					.orElseThrow(() -> new MojoExecutionException("No helm release found for version " + range));
+		});
 	}
 
-	private ReleaseResponse getReleaseResponse() throws MojoExecutionException {
+	private String resolve(String fileName, String requested, Resolver resolver) throws MojoExecutionException {
 
-		Optional<ReleaseCache> cache = readCache();
-		Instant cacheExpiredThreshold = Instant.now().minus(Duration.ofDays(cacheValidityDays));
-		if (cache.map(ReleaseCache::getTimestamp).filter(cacheExpiredThreshold::isBefore).isPresent()) {
-			log.debug("Github cache found with timestamp " + cache.get().getTimestamp() + ", skip Github request.");
-			return cache.get().getResponse();
+		Path file = tmpDir.resolve(fileName).toAbsolutePath().normalize();
+		String key = file + "#" + requested;
+		String version = state.resolved.get(key);
+		if (version != null) {
+			log.debug("Use already resolved " + version + " as helm version");
+			return version;
 		}
 
+		// serialize threads and processes, so concurrent modules make at most one request
 		try {
-			HttpURLConnection connection = (HttpURLConnection) new URL(LATEST_RELEASE_URL).openConnection();
-			connection.setRequestProperty("User-Agent", userAgent);
-			connection.setRequestProperty("Accept", "application/json");
-			cache.map(ReleaseCache::getEtag).ifPresent(etag -> connection.setRequestProperty("If-None-Match", etag));
+			Files.createDirectories(tmpDir);
+			return FileMutex.withLock(tmpDir.resolve(fileName + ".lock"), () -> {
+				String resolved = state.resolved.get(key);
+				if (resolved == null) {
+					resolved = resolver.resolve();
+					state.resolved.put(key, resolved);
+					log.info("Use " + resolved + " as helm version"
+							+ (LATEST.equals(requested) ? "" : " for " + requested));
+				}
+				return resolved;
+			});
+		} catch (IOException e) {
+			throw new MojoExecutionException("Failed to lock Github cache " + file, e);
+		}
+	}
 
-			int responseCode = connection.getResponseCode();
-			if (responseCode == HttpURLConnection.HTTP_NOT_MODIFIED) {
-				log.debug("Cache not modified");
-				return cache.get().getResponse();
+	private boolean matches(String range, String version) throws MojoExecutionException {
+
+		if (version.contains("-")) {
+			return false;
+		}
+
+		if (range.startsWith("[") || range.startsWith("(")) {
+			try {
+				return VersionRange.createFromVersionSpec(range).containsVersion(new DefaultArtifactVersion(version));
+			} catch (InvalidVersionSpecificationException e) {
+				throw new MojoExecutionException("Invalid helm version range " + range + ": " + e.getMessage(), e);
 			}
-			if (responseCode != HttpURLConnection.HTTP_OK) {
-				throw new MojoExecutionException(
-						"Failed to get helm version from github api, response code was " + responseCode);
+		}
+
+		// wildcard matches all remaining segments, e.g. 3.x matches 3.14.2
+		String[] rangeSegments = range.split("\\.");
+		String[] versionSegments = version.split("\\.");
+		for (int i = 0; i < rangeSegments.length; i++) {
+			if (WILDCARDS.contains(rangeSegments[i])) {
+				return true;
 			}
+			if (i >= versionSegments.length || !rangeSegments[i].equals(versionSegments[i])) {
+				return false;
+			}
+		}
+		return rangeSegments.length == versionSegments.length;
+	}
+
+	private String toVersion(String tagName) {
+		// strip leading v, this plugin worked without before and nothing should break
+		return tagName.startsWith("v") ? tagName.substring(1) : tagName;
+	}
 
-			ReleaseResponse response = mapper.readValue(connection.getInputStream(), ReleaseResponse.class);
+	private ReleaseResponse getReleaseResponse() throws MojoExecutionException {
+		return getCache(RELEASE_FILE, cache -> {
+			HttpURLConnection connection = open(apiUrl + "/releases/latest", cache);
+			if (connection.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+				log.debug("Cache not modified");
+				return cache.get().setTimestamp(Instant.now());
+			}
+			ReleaseResponse response = MAPPER.readValue(connection.getInputStream(), ReleaseResponse.class);
 			log.debug("Got valid response from github");
-			writeCache(new ReleaseCache()
+			return new ReleaseCache()
 					.setEtag(connection.getHeaderField("ETag"))
 					.setTimestamp(Instant.now())
-					.setResponse(response));
+					.setResponse(response);
+		}).getResponse();
+	}
 
-			return response;
+	/**
+	 * Get all releases. First page is revalidated with ETag, further pages are only fetched if first page changed.
+	 */
+	private List<ReleaseResponse> getReleases() throws MojoExecutionException {
+		return getCache(RELEASES_FILE, cache -> {
+			HttpURLConnection connection = open(apiUrl + "/releases?per_page=100", cache);
+			if (connection.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+				log.debug("Releases not modified");
+				return cache.get().setTimestamp(Instant.now());
+			}
+			String etag = connection.getHeaderField("ETag");
+			List<ReleaseResponse> releases = new ArrayList<>();
+			while (true) {
+				releases.addAll(MAPPER.readValue(connection.getInputStream(),
+						new TypeReference<List<ReleaseResponse>>() {}));
+				Matcher next = NEXT_LINK.matcher(Optional.ofNullable(connection.getHeaderField("Link")).orElse(""));
+				if (!next.find()) {
+					break;
+				}
+				connection = open(next.group(1), Optional.empty());
+			}
+			log.debug("Got " + releases.size() + " releases from github");
+			return new ReleaseCache()
+					.setEtag(etag)
+					.setTimestamp(Instant.now())
+					.setReleases(releases);
+		}).getReleases();
+	}
+
+	/**
+	 * Get cache entry. An expired entry is revalidated with a conditional request. If Github is rate limited or
+	 * unreachable the expired entry is used, so only a missing entry fails the build. Callers hold the lock of the
+	 * cache file, so the write is serialized with other threads and processes.
+	 */
+	private ReleaseCache getCache(String fileName, Fetcher fetcher) throws MojoExecutionException {
+
+		Optional<ReleaseCache> cache = readCache(fileName);
+		Instant cacheExpiredThreshold = Instant.now().minus(Duration.ofDays(cacheValidityDays));
+		if (cache.map(ReleaseCache::getTimestamp).filter(cacheExpiredThreshold::isBefore).isPresent()) {
+			log.debug("Github cache found with timestamp " + cache.get().getTimestamp() + ", skip Github request.");
+			return cache.get();
+		}
+		if (offline) {
+			if (cache.isPresent()) {
+				log.debug("Maven is offline, use expired Github cache with timestamp " + cache.get().getTimestamp());
+				return cache.get();
+			}
+			throw new MojoExecutionException("Helm version is not cached in " + tmpDir.resolve(fileName)
+					+ " and Maven is offline, configure helm.version or run once online.");
+		}
+
+		try {
+			ReleaseCache fetched = fetcher.fetch(cache);
+			writeCache(fileName, fetched);
+			return fetched;
 		} catch (IOException e) {
-			throw new MojoExecutionException("Failed to get helm version", e);
+			if (cache.isPresent()) {
+				log.warn("Failed to refresh Github cache " + tmpDir.resolve(fileName) + ", use expired entry with"
+						+ " timestamp " + cache.get().getTimestamp() + ": " + e.getMessage());
+				return cache.get();
+			}
+			throw new MojoExecutionException("Failed to get helm version from github api: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Open connection and check response. Rate limit headers are logged and an exhausted rate limit is remembered, so
+	 * no further requests are sent until reset.
+	 */
+	private HttpURLConnection open(String url, Optional<ReleaseCache> cache) throws IOException {
+
+		Instant limitedUntil = state.rateLimitedUntil;
+		if (limitedUntil != null && Instant.now().isBefore(limitedUntil)) {
+			throw new IOException("rate limit exceeded until " + limitedUntil);
+		}
+
+		HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+		connection.setRequestProperty("User-Agent", userAgent);
+		connection.setRequestProperty("Accept", "application/json");
+		if (token != null) {
+			connection.setRequestProperty("Authorization", "Bearer " + token);
 		}
+		cache.map(ReleaseCache::getEtag).ifPresent(etag -> connection.setRequestProperty("If-None-Match", etag));
+
+		int responseCode = connection.getResponseCode();
+		String remaining = connection.getHeaderField("X-RateLimit-Remaining");
+		String reset = connection.getHeaderField("X-RateLimit-Reset");
+		if (remaining != null) {
+			log.debug("Github rate limit: " + remaining + " of " + connection.getHeaderField("X-RateLimit-Limit")
+					+ " requests remaining");
+		}
+		if ((responseCode == HttpURLConnection.HTTP_FORBIDDEN || responseCode == HTTP_TOO_MANY_REQUESTS)
+				&& "0".equals(remaining)) {
+			limitedUntil = reset == null ? Instant.now().plus(Duration.ofHours(1)) : parseReset(reset);
+			state.rateLimitedUntil = limitedUntil;
+			throw new IOException("rate limit exceeded until " + limitedUntil
+					+ (token == null ? ", configure helm.githubServerId to use a token" : ""));
+		}
+		if (responseCode != HttpURLConnection.HTTP_OK && responseCode != HttpURLConnection.HTTP_NOT_MODIFIED) {
+			throw new IOException("response code was " + responseCode);
+		}
+		return connection;
 	}
 
-	private void writeCache(ReleaseCache cache) {
-		Path file = tmpDir.resolve(RELEASE_FILE);
+	private Instant parseReset(String reset) {
 		try {
-			Files.createDirectories(tmpDir);
-			mapper.writeValue(tmpDir.resolve(RELEASE_FILE).toFile(), cache);
+			return Instant.ofEpochSecond(Long.parseLong(reset.trim()));
+		} catch (NumberFormatException e) {
+			return Instant.now().plus(Duration.ofHours(1));
+		}
+	}
+
+	private void writeCache(String fileName, ReleaseCache cache) {
+		Path file = tmpDir.resolve(fileName);
+		try {
+			Path temp = Files.createTempFile(tmpDir, fileName, ".tmp");
+			try {
+				MAPPER.writeValue(temp.toFile(), cache);
+				Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} finally {
+				Files.deleteIfExists(temp);
+			}
 			log.debug("Wrote Github cache to " + file);
 		} catch (IOException e) {
 			log.warn("Failed to write cache to " + file, e);
 		}
 	}
 
-	private Optional<ReleaseCache> readCache() {
+	private Optional<ReleaseCache> readCache(String fileName) {
 
-		Path file = tmpDir.resolve(RELEASE_FILE);
+		Path file = tmpDir.resolve(fileName);
 		if (!Files.exists(file)) {
 			log.debug("Github cache not found at " + file);
 			return Optional.empty();
 		}
 
 		try {
-			ReleaseCache cache = mapper.readValue(file.toFile(), ReleaseCache.class);
+			ReleaseCache cache = MAPPER.readValue(file.toFile(), ReleaseCache.class);
 			log.debug("Github cache found at " + file + " with timestamp " + cache.getTimestamp());
 			return Optional.of(cache);
 		} catch (IOException e) {
@@ -117,4 +334,26 @@ public class Github {
 
 		return Optional.empty();
 	}
+
+	/**
+	 * State of one build: resolved versions by cache file and requested version, so all goals and modules share one,
+	 * and an exhausted rate limit, so no requests are sent until reset.
+	 *
+	 * @since 6.18.0
+	 */
+	public static class State {
+
+		private final Map<String, String> resolved = new ConcurrentHashMap<>();
+		private volatile Instant rateLimitedUntil;
+	}
+
+	@FunctionalInterface
+	private interface Resolver {
+		String resolve() throws MojoExecutionException;
+	}
+
+	@FunctionalInterface
+	private interface Fetcher {
+		ReleaseCache fetch(Optional<ReleaseCache> cache) throws IOException;
+	}
 }
@@ -1,6 +1,7 @@
 package io.kokuwa.maven.helm.github;
 
 import java.time.Instant;
+import java.util.List;
 
 import lombok.Data;
 
@@ -16,4 +17,6 @@ public class ReleaseCache {
 	private Instant timestamp;
 	private String etag;
 	private ReleaseResponse response;
+	/** All releases, cached for version ranges. */
+	private List<ReleaseResponse> releases;
 }
@@ -17,4 +17,6 @@ public class ReleaseResponse {
 
 	@JsonProperty(value = "tag_name", required = true)
 	private String tagName;
+	private boolean draft;
+	private boolean prerelease;
 }
@@ -0,0 +1,19 @@
+package io.kokuwa.maven.helm.pojo;
+
+import java.time.Instant;
+
+import lombok.Data;
+
+/**
+ * Pojo for HTTP cache validators of a downloaded file, used for conditional requests.
+ *
+ * @since 6.18.0
+ */
+@Data
+public class CacheMetadata {
+
+	private String url;
+	private String etag;
+	private String lastModified;
+	private Instant timestamp;
+}
@@ -6,8 +6,10 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.lang.reflect.Method;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
@@ -17,6 +19,13 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -24,6 +33,8 @@ import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.logging.Log;
 import org.codehaus.plexus.util.StringUtils;
 
+import io.kokuwa.maven.helm.util.DaemonThreadFactory;
+import io.kokuwa.maven.helm.util.SpillingBuffer;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
@@ -32,14 +43,25 @@ import lombok.Setter;
 @RequiredArgsConstructor
 public class HelmExecutable {
 
+	/** Shared threads for copying helm output to maven log. */
+	private static final ExecutorService PUMPS = Executors.newCachedThreadPool(new DaemonThreadFactory("helm-pump"));
+	/** Seconds to wait for remaining output after killing a timed out helm process. */
+	private static final int DRAIN_TIMEOUT_SECONDS = 10;
+	/** Bytes of output to add to timeout errors. */
+	private static final int PARTIAL_OUTPUT_BYTES = 4096;
+
 	private final Log log;
 	@Getter
 	private final Path executable;
 	private final List<String> arguments = new ArrayList<>();
 	private final Set<String> sensitiveFlags = new HashSet<>(Arrays.asList("password", "kube-token"));
 	private final Map<String, List<String>> flags = new LinkedHashMap<>();
+	@Getter
 	@Setter
 	private String stdin;
+	/** Deadline for the helm process, <code>null</code> waits forever. */
+	@Setter
+	private Duration timeout;
 
 	public HelmExecutable arguments(Object... args) {
 		Stream.of(args).filter(Objects::nonNull).map(Object::toString).forEach(arguments::add);
@@ -85,62 +107,186 @@ public class HelmExecutable {
 	 * @throws MojoExecutionException Failed to execute helm command.
 	 */
 	public void execute(String errorMessage) throws MojoExecutionException {
+		try (HelmResult result = capture(errorMessage)) {
+			log.debug("Executed in " + result.getDuration().toMillis() + "ms: " + result.getCommand());
+		} catch (IOException e) {
+			log.warn("Failed to cleanup output of helm", e);
+		}
+	}
+
+	/**
+	 * Execute helm command and keep output. Result has to be closed by caller.
+	 *
+	 * @param errorMessage Error message if exit code is not zero.
+	 * @return Result with captured output.
+	 * @throws MojoExecutionException Failed to execute helm command.
+	 */
+	public HelmResult capture(String errorMessage) throws MojoExecutionException {
+		HelmResult result = run();
+		if (!result.isSuccess()) {
+			try {
+				result.close();
+			} catch (IOException e) {
+				log.warn("Failed to cleanup output of helm", e);
+			}
+			throw new MojoExecutionException(errorMessage);
+		}
+		return result;
+	}
+
+	/**
+	 * Execute helm command without checking exit code. Result has to be closed by caller.
+	 *
+	 * @return Result with captured output.
+	 * @throws MojoExecutionException Failed to execute helm command.
+	 */
+	public HelmResult run() throws MojoExecutionException {
 
 		String command = Stream.of(toCommand(true)).collect(Collectors.joining(" "));
 		log.debug("Execute: " + command);
 
+		SpillingBuffer stdout = new SpillingBuffer();
+		SpillingBuffer stderr = new SpillingBuffer();
+		long started = System.nanoTime();
+		Process process = null;
+		HelmResult result = null;
 		try {
 
-			Process process = Runtime.getRuntime().exec(toCommand(false));
+			process = new ProcessBuilder(toCommand(false)).start();
+
+			// redirect helm output to maven log
+
+			Future<?> output = PUMPS.submit(pump(process.getInputStream(), stdout, log::info,
+					"Failed to redirect input"));
+			Future<?> error = PUMPS.submit(pump(process.getErrorStream(), stderr, log::error,
+					"Failed to redirect errors"));
 
 			// write to stdin
 
-			if (StringUtils.isNotEmpty(stdin)) {
-				try (OutputStream output = process.getOutputStream()) {
-					output.write(stdin.getBytes(StandardCharsets.UTF_8));
-				} catch (IOException e) {
-					log.error("failed to write to stdin of helm", e);
+			try (OutputStream input = process.getOutputStream()) {
+				if (StringUtils.isNotEmpty(stdin)) {
+					input.write(stdin.getBytes(StandardCharsets.UTF_8));
 				}
+			} catch (IOException e) {
+				log.error("failed to write to stdin of helm", e);
 			}
 
-			// redirect helm output to maven log
+			// wait for process to finish and drain output before returning
 
-			new Thread(() -> {
-				try (InputStream input = process.getInputStream()) {
-					BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
-					String line;
-					while ((line = reader.readLine()) != null) {
-						log.info(line);
-					}
-				} catch (IOException e) {
-					log.error("Failed to redirect input", e);
-				}
-			}).start();
-			new Thread(() -> {
-				try (InputStream error = process.getErrorStream()) {
-					BufferedReader reader = new BufferedReader(new InputStreamReader(error, StandardCharsets.UTF_8));
-					String line;
-					while ((line = reader.readLine()) != null) {
-						log.error(line);
-					}
-				} catch (IOException e) {
-					log.error("Failed to redirect errors", e);
+			if (timeout != null && !process.waitFor(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+				destroyProcessTree(process);
+				drain(output);
+				drain(error);
+				String message = "Helm command timed out after " + timeout.getSeconds() + "s: " + command + "\n"
+						+ partialOutput(stdout, stderr);
+				throw new MojoExecutionException(message);
+			}
+			int exitCode = process.waitFor();
+			output.get();
+			error.get();
+			result = new HelmResult(command, exitCode, Duration.ofNanos(System.nanoTime() - started), stdout, stderr);
+			return result;
+
+		} catch (IOException | ExecutionException e) {
+			// do not leave helm running if output could not be redirected
+			destroyProcessTree(process);
+			throw new MojoExecutionException("Error processing command: " + command, e);
+		} catch (InterruptedException e) {
+			destroyProcessTree(process);
+			Thread.currentThread().interrupt();
+			throw new MojoExecutionException("Interrupted processing command: " + command, e);
+		} finally {
+			// without result nobody else will close the buffers and delete spilled output
+			if (result == null) {
+				close(stdout);
+				close(stderr);
+			}
+		}
+	}
+
+	private void close(SpillingBuffer buffer) {
+		try {
+			buffer.close();
+		} catch (IOException e) {
+			log.warn("Failed to cleanup output of helm", e);
+		}
+	}
+
+	/**
+	 * Kill helm and all processes started by helm (e.g. plugins). Descendants are only reachable with java 9 or
+	 * newer, so <code>ProcessHandle</code> is used by reflection and only the helm process is killed on java 8.
+	 *
+	 * @param process Process to kill.
+	 */
+	private void destroyProcessTree(Process process) {
+		if (process == null) {
+			return;
+		}
+		try {
+			Class<?> handleType = Class.forName("java.lang.ProcessHandle");
+			Object handle = Process.class.getMethod("toHandle").invoke(process);
+			Method destroy = handleType.getMethod("destroyForcibly");
+			((Stream<?>) handleType.getMethod("descendants").invoke(handle)).forEach(descendant -> {
+				try {
+					destroy.invoke(descendant);
+				} catch (ReflectiveOperationException e) {
+					log.debug("Failed to kill child process of helm", e);
 				}
-			}).start();
+			});
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			log.debug("Unable to kill child processes of helm", e);
+		}
+		process.destroyForcibly();
+	}
 
-			// wait for process to finish
+	private void drain(Future<?> pump) {
+		try {
+			pump.get(DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException | TimeoutException e) {
+			log.debug("Failed to drain output of killed helm process", e);
+			pump.cancel(true);
+		}
+	}
+
+	private String partialOutput(SpillingBuffer stdout, SpillingBuffer stderr) {
+		StringBuilder output = new StringBuilder();
+		if (stdout.size() > 0) {
+			output.append("stdout:\n").append(stdout.tail(PARTIAL_OUTPUT_BYTES, StandardCharsets.UTF_8));
+		}
+		if (stderr.size() > 0) {
+			output.append("stderr:\n").append(stderr.tail(PARTIAL_OUTPUT_BYTES, StandardCharsets.UTF_8));
+		}
+		return output.length() == 0 ? "no output" : output.toString();
+	}
 
-			if (process.waitFor() != 0) {
-				throw new MojoExecutionException(errorMessage);
+	private Runnable pump(InputStream stream, OutputStream buffer, Consumer<String> consumer, String errorMessage) {
+		return () -> {
+			try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					consumer.accept(line);
+					buffer.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+				}
+			} catch (IOException e) {
+				log.error(errorMessage, e);
 			}
+		};
+	}
 
-		} catch (IOException | InterruptedException e) {
-			throw new MojoExecutionException("Error processing command: " + command, e);
-		}
+	/**
+	 * Returns arguments and flags of this command without helm executable and without masking.
+	 *
+	 * @return Arguments and flags.
+	 */
+	public List<String> getCommandLine() {
+		List<String> command = Arrays.asList(toCommand(false));
+		return command.subList(1, command.size());
 	}
 
 	/**
-	 * Returns this command as strings for {@link Runtime#exec(String[])}
+	 * Returns this command as strings for {@link ProcessBuilder}
 	 *
 	 * @param stripSensitiveFlags <code>true</code> if passwords and tokens should be masked.
 	 * @return Strings for helm command.
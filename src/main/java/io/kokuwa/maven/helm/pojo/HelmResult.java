@@ -0,0 +1,55 @@
+package io.kokuwa.maven.helm.pojo;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import io.kokuwa.maven.helm.util.SpillingBuffer;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Result of a helm execution. Output is kept in memory up to a threshold and spilled to disk beyond, so close
+ * results after use.
+ *
+ * @since 6.18.0
+ */
+@Getter
+@RequiredArgsConstructor
+public class HelmResult implements Closeable {
+
+	/** Command line with passwords and tokens masked. */
+	private final String command;
+	private final int exitCode;
+	private final Duration duration;
+	private final SpillingBuffer stdoutBuffer;
+	private final SpillingBuffer stderrBuffer;
+
+	public boolean isSuccess() {
+		return exitCode == 0;
+	}
+
+	public String getStdout() {
+		return stdoutBuffer.toString(StandardCharsets.UTF_8);
+	}
+
+	public String getStderr() {
+		return stderrBuffer.toString(StandardCharsets.UTF_8);
+	}
+
+	public InputStream openStdout() throws IOException {
+		return stdoutBuffer.openStream();
+	}
+
+	public InputStream openStderr() throws IOException {
+		return stderrBuffer.openStream();
+	}
+
+	@Override
+	public void close() throws IOException {
+		stdoutBuffer.close();
+		stderrBuffer.close();
+	}
+}
@@ -0,0 +1,27 @@
+package io.kokuwa.maven.helm.pojo;
+
+import java.time.Instant;
+
+import lombok.Data;
+
+/**
+ * POJO for fingerprint of a packaged chart, stored next to the chart archive.
+ *
+ * @since 6.18.0
+ */
+@Data
+public class PackageFingerprint {
+
+	/** SHA-256 of all files in chart directory. */
+	private String source;
+	private String chartVersion;
+	private String appVersion;
+	/** Name of gpg key and keyring used for signing. */
+	private String signingKey;
+	/** Engine used for packaging, "helm" or "java". */
+	private String engine;
+	/** Timestamp of reproducible archives, <code>null</code> if not reproducible. */
+	private Instant timestamp;
+	/** SHA-256 of helm binary, stricter than helm version. */
+	private String helm;
+}
@@ -0,0 +1,32 @@
+package io.kokuwa.maven.helm.pojo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * POJO for manifest of chart archives created by "helm:package", consumed by upload goals.
+ *
+ * @since 6.18.0
+ */
+@Data
+public class PackageManifest {
+
+	/** Start time of the build that wrote this manifest, in milliseconds since epoch. */
+	private Long build;
+	private List<Archive> archives = new ArrayList<>();
+
+	@Data
+	public static class Archive {
+
+		/** Path relative to output directory. */
+		private String path;
+		private String sha256;
+		private long size;
+		private String name;
+		private String version;
+		/** Path of provenance file relative to output directory, <code>null</code> if not signed. */
+		private String provenance;
+	}
+}
@@ -0,0 +1,40 @@
+package io.kokuwa.maven.helm.pojo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.Data;
+import lombok.ToString;
+
+/**
+ * POJO for "repositories.yaml" file of helm.
+ *
+ * @since 6.18.0
+ */
+@Data
+public class RepositoriesFile {
+
+	private String apiVersion = "";
+	private String generated;
+	private List<Entry> repositories = new ArrayList<>();
+
+	/** Repository entry, empty values are written as empty strings like helm does. */
+	@Data
+	public static class Entry {
+
+		private String name = "";
+		private String url = "";
+		private String username = "";
+		@ToString.Exclude
+		private String password = "";
+		private String certFile = "";
+		private String keyFile = "";
+		private String caFile = "";
+		@JsonProperty("insecure_skip_tls_verify")
+		private boolean insecureSkipTlsVerify;
+		@JsonProperty("pass_credentials_all")
+		private boolean passCredentialsAll;
+	}
+}
@@ -0,0 +1,133 @@
+package io.kokuwa.maven.helm.util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLMapper;
+
+import io.kokuwa.maven.helm.pojo.HelmChart;
+import io.kokuwa.maven.helm.pojo.HelmChart.Dependency;
+
+/**
+ * Graph of charts connected by "file://" dependencies, used to process charts after the charts they depend on.
+ *
+ * @since 6.18.0
+ */
+public class ChartGraph {
+
+	private static final ObjectMapper MAPPER = new YAMLMapper()
+			.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+	private static final String FILE_PREFIX = "file://";
+
+	private final Log log;
+
+	/**
+	 * Constructor for setting constants
+	 *
+	 * @param log used to write output from the util
+	 */
+	public ChartGraph(Log log) {
+		this.log = log;
+	}
+
+	/**
+	 * Group charts into levels: charts of a level only depend on charts of previous levels, so charts within a level
+	 * can be processed concurrently. Dependencies to charts not in the given list are ignored.
+	 *
+	 * @param chartDirectories chart directories, order is kept within each level
+	 * @return Levels of chart directories.
+	 * @throws MojoExecutionException Charts depend on each other in a cycle.
+	 */
+	public List<List<Path>> levels(List<Path> chartDirectories) throws MojoExecutionException {
+
+		Map<Path, Path> charts = new LinkedHashMap<>();
+		for (Path chartDirectory : chartDirectories) {
+			charts.put(normalize(chartDirectory), chartDirectory);
+		}
+		Map<Path, Set<Path>> dependencies = new LinkedHashMap<>();
+		for (Path chart : charts.keySet()) {
+			dependencies.put(chart, getDependencies(chart).stream()
+					.filter(charts::containsKey)
+					.collect(Collectors.toCollection(LinkedHashSet::new)));
+		}
+
+		// Kahn's algorithm, level by level
+
+		List<List<Path>> levels = new ArrayList<>();
+		Set<Path> done = new LinkedHashSet<>();
+		while (done.size() < charts.size()) {
+			List<Path> level = charts.keySet().stream()
+					.filter(chart -> !done.contains(chart))
+					.filter(chart -> done.containsAll(dependencies.get(chart)))
+					.collect(Collectors.toList());
+			if (level.isEmpty()) {
+				throw new MojoExecutionException("Charts have cyclic file:// dependencies: "
+						+ findCycle(dependencies, done).stream().map(charts::get).map(Path::toString)
+								.collect(Collectors.joining(" -> ")));
+			}
+			done.addAll(level);
+			levels.add(level.stream().map(charts::get).collect(Collectors.toList()));
+		}
+		if (levels.size() > 1) {
+			log.debug("Processing charts in " + levels.size() + " levels: " + levels);
+		}
+		return levels;
+	}
+
+	private Set<Path> getDependencies(Path chart) {
+		Set<Path> directories = new LinkedHashSet<>();
+		// helm 2 charts (apiVersion v1) may declare dependencies in requirements.yaml
+		for (String file : new String[] { "Chart.yaml", "requirements.yaml" }) {
+			Path chartFile = chart.resolve(file);
+			if (!Files.isRegularFile(chartFile)) {
+				continue;
+			}
+			List<Dependency> dependencies;
+			try {
+				dependencies = MAPPER.readValue(chartFile.toFile(), HelmChart.class).getDependencies();
+			} catch (IOException e) {
+				// helm will report broken files while processing the chart
+				log.debug("Unable to read dependencies from " + chartFile, e);
+				continue;
+			}
+			for (Dependency dependency : dependencies == null ? Collections.<Dependency>emptyList() : dependencies) {
+				String repository = dependency.getRepository();
+				if (repository != null && repository.startsWith(FILE_PREFIX)) {
+					directories.add(normalize(chart.resolve(repository.substring(FILE_PREFIX.length()))));
+				}
+			}
+		}
+		return directories;
+	}
+
+	private static List<Path> findCycle(Map<Path, Set<Path>> dependencies, Set<Path> done) {
+		// every chart left has a dependency left, so following them must end in a cycle
+		List<Path> path = new ArrayList<>();
+		Path current = dependencies.keySet().stream().filter(chart -> !done.contains(chart)).findFirst().get();
+		while (!path.contains(current)) {
+			path.add(current);
+			current = dependencies.get(current).stream().filter(chart -> !done.contains(chart)).findFirst().get();
+		}
+		List<Path> cycle = new ArrayList<>(path.subList(path.indexOf(current), path.size()));
+		cycle.add(current);
+		return cycle;
+	}
+
+	private static Path normalize(Path path) {
+		return path.toAbsolutePath().normalize();
+	}
+}
@@ -0,0 +1,375 @@
+package io.kokuwa.maven.helm.util;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.maven.artifact.versioning.ComparableVersion;
+import org.yaml.snakeyaml.LoaderOptions;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+
+import lombok.Value;
+
+/**
+ * Compact binary form of a repository "index.yaml" with chart names, sorted versions, digests and urls. The binary
+ * file is derived from "index.yaml" with a streaming parser and read into a heap buffer, lookups decode only the
+ * strings they need instead of parsing the whole index. It is rebuilt only if "index.yaml" was replaced, which
+ * conditional downloads do only if the ETag changed. The binary file is not memory-mapped, so it is not kept open and
+ * can be replaced while an index is cached, also on Windows.
+ *
+ * <pre>
+ * header:   "HCIX" | format | source tag | chart count | version count
+ * charts:   name offset | first version | version count   (sorted by name)
+ * versions: version offset | digest offset | url offset    (sorted by version per chart)
+ * strings:  length | UTF-8 bytes
+ * </pre>
+ *
+ * @since 6.18.0
+ */
+public class ChartIndex {
+
+	private static final JsonFactory FACTORY = YAMLFactory.builder().loaderOptions(loaderOptions()).build();
+	private static final Map<Path, ChartIndex> OPENED = new ConcurrentHashMap<>();
+	private static final byte[] MAGIC = "HCIX".getBytes(StandardCharsets.US_ASCII);
+	private static final int FORMAT = 1;
+	private static final int ENTRY_SIZE = 12;
+	private static final int NONE = -1;
+
+	private final String tag;
+	private final ByteBuffer buffer;
+	private final int chartCount;
+	private final int chartTable;
+	private final int versionTable;
+
+	private ChartIndex(String tag, ByteBuffer buffer) throws IOException {
+		this.tag = tag;
+		this.buffer = buffer;
+		byte[] magic = new byte[MAGIC.length];
+		buffer.duplicate().get(magic);
+		if (!Arrays.equals(magic, MAGIC) || buffer.getInt(MAGIC.length) != FORMAT) {
+			throw new IOException("Unsupported chart index format");
+		}
+		int tagLength = buffer.getInt(MAGIC.length + 4);
+		int offset = MAGIC.length + 8 + tagLength;
+		this.chartCount = buffer.getInt(offset);
+		int versionCount = buffer.getInt(offset + 4);
+		this.chartTable = offset + 8;
+		this.versionTable = chartTable + chartCount * ENTRY_SIZE;
+		if (versionTable + versionCount * ENTRY_SIZE > buffer.limit()) {
+			throw new IOException("Truncated chart index");
+		}
+	}
+
+	/**
+	 * Open binary index for "index.yaml", build it if missing or outdated.
+	 *
+	 * @param index  repository "index.yaml"
+	 * @param binary file for binary index, usually next to "index.yaml"
+	 * @return Index, cached per binary file as long as "index.yaml" is unchanged.
+	 * @throws IOException Index cannot be read or is not a valid repository index.
+	 */
+	public static ChartIndex open(Path index, Path binary) throws IOException {
+
+		BasicFileAttributes attributes = Files.readAttributes(index, BasicFileAttributes.class);
+		String tag = attributes.size() + "-" + attributes.lastModifiedTime().toMillis();
+
+		Path key = binary.toAbsolutePath().normalize();
+		ChartIndex opened = OPENED.get(key);
+		if (opened != null && opened.tag.equals(tag)) {
+			return opened;
+		}
+		if (Files.isRegularFile(binary)) {
+			try {
+				ChartIndex existing = load(binary);
+				if (existing.tag.equals(tag)) {
+					OPENED.put(key, existing);
+					return existing;
+				}
+			} catch (IOException | RuntimeException e) {
+				// rebuild unreadable index below
+			}
+		}
+
+		write(index, binary, tag);
+		ChartIndex built = load(binary);
+		OPENED.put(key, built);
+		return built;
+	}
+
+	/**
+	 * Chart names in index.
+	 *
+	 * @return Chart names in natural order.
+	 */
+	public List<String> getCharts() {
+		List<String> charts = new ArrayList<>(chartCount);
+		for (int i = 0; i < chartCount; i++) {
+			charts.add(string(buffer.getInt(chartTable + i * ENTRY_SIZE)));
+		}
+		return charts;
+	}
+
+	/**
+	 * Versions of chart.
+	 *
+	 * @param chart chart name
+	 * @return Versions in ascending order, empty if chart is unknown.
+	 */
+	public List<String> getVersions(String chart) {
+		int position = findChart(chart);
+		if (position < 0) {
+			return Collections.emptyList();
+		}
+		int first = buffer.getInt(position + 4);
+		int count = buffer.getInt(position + 8);
+		List<String> versions = new ArrayList<>(count);
+		for (int i = first; i < first + count; i++) {
+			versions.add(string(buffer.getInt(versionTable + i * ENTRY_SIZE)));
+		}
+		return versions;
+	}
+
+	/**
+	 * Find chart version.
+	 *
+	 * @param chart   chart name
+	 * @param version exact chart version
+	 * @return Version with digest and url if present in index.
+	 */
+	public Optional<ChartVersion> find(String chart, String version) {
+		int position = findChart(chart);
+		if (position < 0) {
+			return Optional.empty();
+		}
+		int first = buffer.getInt(position + 4);
+		int count = buffer.getInt(position + 8);
+		for (int i = first; i < first + count; i++) {
+			int entry = versionTable + i * ENTRY_SIZE;
+			if (version.equals(string(buffer.getInt(entry)))) {
+				return Optional.of(new ChartVersion(version,
+						string(buffer.getInt(entry + 4)),
+						string(buffer.getInt(entry + 8))));
+			}
+		}
+		return Optional.empty();
+	}
+
+	/** Binary search in chart table, returns position of entry or -1. */
+	private int findChart(String chart) {
+		int low = 0;
+		int high = chartCount - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int position = chartTable + middle * ENTRY_SIZE;
+			int comparison = string(buffer.getInt(position)).compareTo(chart);
+			if (comparison < 0) {
+				low = middle + 1;
+			} else if (comparison > 0) {
+				high = middle - 1;
+			} else {
+				return position;
+			}
+		}
+		return NONE;
+	}
+
+	private String string(int offset) {
+		if (offset == NONE) {
+			return null;
+		}
+		byte[] bytes = new byte[buffer.getInt(offset)];
+		ByteBuffer view = buffer.duplicate();
+		view.position(offset + 4);
+		view.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static ChartIndex load(Path binary) throws IOException {
+		ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(binary));
+		if (buffer.limit() < MAGIC.length + 8) {
+			throw new IOException("Truncated chart index");
+		}
+		byte[] tag = new byte[buffer.getInt(MAGIC.length + 4)];
+		ByteBuffer view = buffer.duplicate();
+		view.position(MAGIC.length + 8);
+		view.get(tag);
+		return new ChartIndex(new String(tag, StandardCharsets.UTF_8), buffer);
+	}
+
+	// build
+
+	private static void write(Path index, Path binary, String tag) throws IOException {
+
+		Map<String, List<ChartVersion>> charts = read(index);
+		Comparator<ChartVersion> order = Comparator.comparing(v -> new ComparableVersion(v.getVersion()));
+		charts.values().forEach(versions -> versions.sort(order));
+		int versionCount = charts.values().stream().mapToInt(List::size).sum();
+
+		byte[] tagBytes = tag.getBytes(StandardCharsets.UTF_8);
+		int stringsOffset = MAGIC.length + 8 + tagBytes.length + 8 + (charts.size() + versionCount) * ENTRY_SIZE;
+		StringPool pool = new StringPool(stringsOffset);
+
+		Path temp = Files.createTempFile(binary.toAbsolutePath().getParent(), binary.getFileName().toString(), ".tmp");
+		try {
+			OutputStream file = new BufferedOutputStream(Files.newOutputStream(temp));
+			try (DataOutputStream output = new DataOutputStream(file)) {
+				output.write(MAGIC);
+				output.writeInt(FORMAT);
+				output.writeInt(tagBytes.length);
+				output.write(tagBytes);
+				output.writeInt(charts.size());
+				output.writeInt(versionCount);
+				int first = 0;
+				for (Map.Entry<String, List<ChartVersion>> chart : charts.entrySet()) {
+					output.writeInt(pool.add(chart.getKey()));
+					output.writeInt(first);
+					output.writeInt(chart.getValue().size());
+					first += chart.getValue().size();
+				}
+				for (List<ChartVersion> versions : charts.values()) {
+					for (ChartVersion version : versions) {
+						output.writeInt(pool.add(version.getVersion()));
+						output.writeInt(pool.add(version.getDigest()));
+						output.writeInt(pool.add(version.getUrl()));
+					}
+				}
+				pool.writeTo(output);
+			}
+			Files.move(temp, binary, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	/** Read index with streaming parser, only version, digest and first url of each entry are kept. */
+	private static Map<String, List<ChartVersion>> read(Path index) throws IOException {
+		Map<String, List<ChartVersion>> charts = new TreeMap<>();
+		String apiVersion = null;
+		try (JsonParser parser = FACTORY.createParser(index.toFile())) {
+			if (parser.nextToken() != JsonToken.START_OBJECT) {
+				throw new IOException("index is not a yaml object");
+			}
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String field = parser.currentName();
+				JsonToken value = parser.nextToken();
+				if (field.equals("apiVersion")) {
+					apiVersion = parser.getValueAsString();
+				} else if (field.equals("entries") && value == JsonToken.START_OBJECT) {
+					while (parser.nextToken() == JsonToken.FIELD_NAME) {
+						String chart = parser.currentName();
+						List<ChartVersion> versions = charts.computeIfAbsent(chart, c -> new ArrayList<>());
+						if (parser.nextToken() != JsonToken.START_ARRAY) {
+							parser.skipChildren();
+							continue;
+						}
+						while (parser.nextToken() == JsonToken.START_OBJECT) {
+							ChartVersion version = readVersion(parser);
+							if (version.getVersion() != null) {
+								versions.add(version);
+							}
+						}
+					}
+				} else {
+					parser.skipChildren();
+				}
+			}
+		}
+		if (apiVersion == null || apiVersion.isEmpty()) {
+			throw new IOException("no API version specified");
+		}
+		return charts;
+	}
+
+	private static ChartVersion readVersion(JsonParser parser) throws IOException {
+		String version = null;
+		String digest = null;
+		String url = null;
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.currentName();
+			JsonToken value = parser.nextToken();
+			if (field.equals("version")) {
+				version = parser.getValueAsString();
+			} else if (field.equals("digest")) {
+				digest = parser.getValueAsString();
+			} else if (field.equals("urls") && value == JsonToken.START_ARRAY) {
+				while (parser.nextToken() != JsonToken.END_ARRAY) {
+					url = url == null ? parser.getValueAsString() : url;
+					parser.skipChildren();
+				}
+			} else {
+				parser.skipChildren();
+			}
+		}
+		return new ChartVersion(version, digest, url);
+	}
+
+	private static LoaderOptions loaderOptions() {
+		LoaderOptions options = new LoaderOptions();
+		options.setCodePointLimit(Integer.MAX_VALUE);
+		return options;
+	}
+
+	/** Chart version as listed in index. */
+	@Value
+	public static class ChartVersion {
+		String version;
+		String digest;
+		String url;
+	}
+
+	/** Strings section, equal strings are stored once. */
+	private static class StringPool {
+
+		private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		private final DataOutputStream output = new DataOutputStream(bytes);
+		private final Map<String, Integer> offsets = new HashMap<>();
+		private final int base;
+
+		private StringPool(int base) {
+			this.base = base;
+		}
+
+		private int add(String value) throws IOException {
+			if (value == null) {
+				return NONE;
+			}
+			Integer existing = offsets.get(value);
+			if (existing != null) {
+				return existing;
+			}
+			int offset = base + output.size();
+			byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+			output.writeInt(encoded.length);
+			output.write(encoded);
+			offsets.put(value, offset);
+			return offset;
+		}
+
+		private void writeTo(OutputStream target) throws IOException {
+			output.flush();
+			bytes.writeTo(target);
+		}
+	}
+}
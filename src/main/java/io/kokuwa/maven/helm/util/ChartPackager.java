@@ -0,0 +1,336 @@
+package io.kokuwa.maven.helm.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipParameters;
+import org.apache.commons.compress.utils.IOUtils;
+import org.codehaus.plexus.util.FileUtils;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLMapper;
+
+import io.kokuwa.maven.helm.pojo.HelmChart;
+import lombok.Setter;
+
+/**
+ * Creates chart archives without invoking helm. The archive has the same layout as "helm package" creates: all files
+ * not ignored by ".helmignore" below a directory named like the chart, with version and appVersion replaced in
+ * "Chart.yaml". With a timestamp set archives are reproducible: the same chart and version results in identical
+ * bytes on every machine.
+ *
+ * @since 6.18.0
+ */
+@Setter
+public class ChartPackager {
+
+	public static final String CHART_FILE = "Chart.yaml";
+
+	private static final ObjectMapper YAML_MAPPER = new YAMLMapper()
+			.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+	private static final int FILE_MODE = 0100644;
+	private static final int GZIP_OS_UNKNOWN = 255;
+
+	/** Timestamp for all entries and gzip header, <code>null</code> for current time. */
+	private Instant timestamp;
+
+	/**
+	 * Package chart.
+	 *
+	 * @param chartDirectory  directory with "Chart.yaml"
+	 * @param outputDirectory directory to write archive to
+	 * @param version         version to set, <code>null</code> to keep version from "Chart.yaml"
+	 * @param appVersion      app version to set, <code>null</code> to keep app version from "Chart.yaml"
+	 * @return Path of created archive.
+	 * @throws IOException Unable to read chart or write archive.
+	 */
+	public Path pack(Path chartDirectory, Path outputDirectory, String version, String appVersion)
+			throws IOException {
+
+		Path chartFile = chartDirectory.resolve(CHART_FILE);
+		if (!Files.isRegularFile(chartFile)) {
+			throw new IOException("Chart file " + chartFile + " not found");
+		}
+		HelmChart chart = YAML_MAPPER.readValue(chartFile.toFile(), HelmChart.class);
+		if (chart.getName() == null || chart.getName().isEmpty()) {
+			throw new IOException("Chart file " + chartFile + " has no name");
+		}
+		String archiveVersion = version != null ? version : chart.getVersion();
+		Path archive = outputDirectory.resolve(chart.getName() + "-" + archiveVersion + ".tgz");
+
+		List<String> files = listFiles(chartDirectory);
+		checkDependencies(chartDirectory, chart, files);
+		byte[] chartYaml = rewriteChartFile(new String(Files.readAllBytes(chartFile), StandardCharsets.UTF_8),
+				version, appVersion).getBytes(StandardCharsets.UTF_8);
+
+		Files.createDirectories(outputDirectory);
+		write(archive, (tar, modified) -> {
+			for (String name : files) {
+				String entryName = chart.getName() + "/" + name;
+				if (name.equals(CHART_FILE)) {
+					putEntry(tar, entryName, chartYaml.length, new ByteArrayInputStream(chartYaml), modified);
+				} else {
+					Path file = chartDirectory.resolve(name);
+					try (InputStream input = Files.newInputStream(file)) {
+						putEntry(tar, entryName, Files.size(file), input, modified);
+					}
+				}
+			}
+		});
+		return archive;
+	}
+
+	/**
+	 * Rewrite an existing archive, e.g. created by "helm package", with the same normalized entry order and headers
+	 * that are used for archives created by this packager. Entries are extracted into a temporary directory next to
+	 * the archive, so large charts are not held in memory.
+	 *
+	 * @param archive chart archive to rewrite in place
+	 * @throws IOException Unable to read or write archive.
+	 */
+	public void normalize(Path archive) throws IOException {
+		Path directory = Files.createTempDirectory(archive.toAbsolutePath().getParent(), "normalize");
+		try {
+
+			// entries are stored by index, so entry names cannot escape the temporary directory
+
+			Map<String, Path> entries = new TreeMap<>(ChartPackager::compareEntries);
+			try (InputStream file = Files.newInputStream(archive);
+					TarArchiveInputStream tar = new TarArchiveInputStream(new GzipCompressorInputStream(file))) {
+				TarArchiveEntry entry;
+				while ((entry = tar.getNextEntry()) != null) {
+					if (entry.isFile()) {
+						Path content = directory.resolve(String.valueOf(entries.size()));
+						Files.copy(tar, content);
+						entries.put(entry.getName(), content);
+					}
+				}
+			}
+			write(archive, (tar, modified) -> {
+				for (Entry<String, Path> entry : entries.entrySet()) {
+					try (InputStream input = Files.newInputStream(entry.getValue())) {
+						putEntry(tar, entry.getKey(), Files.size(entry.getValue()), input, modified);
+					}
+				}
+			});
+		} finally {
+			FileUtils.deleteDirectory(directory.toFile());
+		}
+	}
+
+	private void write(Path archive, Entries entries) throws IOException {
+
+		// without timestamp use current time as helm does, otherwise the archive only depends on its entries
+
+		Date modified = timestamp == null ? new Date() : Date.from(timestamp);
+		GzipParameters parameters = new GzipParameters();
+		parameters.setComment("Helm");
+		parameters.setModificationTime(modified.getTime());
+		parameters.setOperatingSystem(GZIP_OS_UNKNOWN);
+
+		Path temp = Files.createTempFile(archive.getParent(), archive.getFileName().toString(), ".tmp");
+		try {
+			try (OutputStream file = Files.newOutputStream(temp);
+					TarArchiveOutputStream tar = new TarArchiveOutputStream(
+							new GzipCompressorOutputStream(file, parameters), StandardCharsets.UTF_8.name())) {
+				tar.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+				tar.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_POSIX);
+				entries.write(tar, modified);
+				tar.finish();
+			}
+			Files.move(temp, archive, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	private static void putEntry(TarArchiveOutputStream tar, String name, long size, InputStream content,
+			Date modified) throws IOException {
+		TarArchiveEntry entry = new TarArchiveEntry(name);
+		entry.setMode(FILE_MODE);
+		entry.setSize(size);
+		entry.setModTime(modified);
+		entry.setIds(0, 0);
+		entry.setNames("", "");
+		tar.putArchiveEntry(entry);
+		IOUtils.copy(content, tar);
+		tar.closeArchiveEntry();
+	}
+
+	/**
+	 * Fail for dependencies of "Chart.yaml" that are missing in "charts/", as "helm package" does. Subcharts are
+	 * matched by name: directories by name of their "Chart.yaml", archives by their top level directory.
+	 *
+	 * @param chartDirectory directory with chart
+	 * @param chart          content of "Chart.yaml"
+	 * @param files          files of chart that are not ignored
+	 * @throws IOException Dependencies missing or unable to read subchart.
+	 */
+	void checkDependencies(Path chartDirectory, HelmChart chart, List<String> files) throws IOException {
+		if (chart.getDependencies() == null || chart.getDependencies().isEmpty()) {
+			return;
+		}
+		Set<String> subcharts = new HashSet<>();
+		for (String name : files) {
+			if (name.matches("charts/[^/]+/" + CHART_FILE)) {
+				HelmChart subchart = YAML_MAPPER.readValue(chartDirectory.resolve(name).toFile(), HelmChart.class);
+				subcharts.add(subchart.getName());
+			} else if (name.matches("charts/[^/]+\\.tgz")) {
+				try (InputStream file = Files.newInputStream(chartDirectory.resolve(name));
+						TarArchiveInputStream tar = new TarArchiveInputStream(new GzipCompressorInputStream(file))) {
+					TarArchiveEntry entry = tar.getNextEntry();
+					if (entry != null) {
+						subcharts.add(entry.getName().replaceFirst("/.*", ""));
+					}
+				}
+			}
+		}
+		List<String> missing = chart.getDependencies().stream()
+				.map(HelmChart.Dependency::getName)
+				.filter(name -> !subcharts.contains(name))
+				.collect(Collectors.toList());
+		if (!missing.isEmpty()) {
+			throw new IOException("Found in " + CHART_FILE + ", but missing in charts/ directory of " + chartDirectory
+					+ ": " + String.join(", ", missing));
+		}
+	}
+
+	/**
+	 * Order of archive entries: "Chart.yaml" of chart first, remaining entries sorted by path.
+	 *
+	 * @param a name of first entry
+	 * @param b name of second entry
+	 * @return Comparison result.
+	 */
+	private static int compareEntries(String a, String b) {
+		boolean aChart = a.indexOf('/') == a.lastIndexOf('/') && a.endsWith("/" + CHART_FILE);
+		boolean bChart = b.indexOf('/') == b.lastIndexOf('/') && b.endsWith("/" + CHART_FILE);
+		return aChart == bChart ? a.compareTo(b) : aChart ? -1 : 1;
+	}
+
+	/**
+	 * Collect files of chart that are not ignored, "Chart.yaml" first and remaining files sorted by path.
+	 *
+	 * @param chartDirectory directory with chart
+	 * @return Relative paths with "/" as separator.
+	 * @throws IOException Unable to read ".helmignore" or walk chart.
+	 */
+	List<String> listFiles(Path chartDirectory) throws IOException {
+		HelmIgnore ignore = HelmIgnore.of(chartDirectory);
+		List<String> files = new ArrayList<>();
+		Files.walkFileTree(chartDirectory, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE,
+				new SimpleFileVisitor<Path>() {
+
+					@Override
+					public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+						return ignore.isIgnored(relativize(chartDirectory, dir), true)
+								? FileVisitResult.SKIP_SUBTREE
+								: FileVisitResult.CONTINUE;
+					}
+
+					@Override
+					public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+						String name = relativize(chartDirectory, file);
+						if (ignore.isIgnored(name, false)) {
+							return FileVisitResult.CONTINUE;
+						}
+						if (!attrs.isRegularFile()) {
+							throw new IOException("Cannot load irregular file " + file);
+						}
+						files.add(name);
+						return FileVisitResult.CONTINUE;
+					}
+				});
+		Collections.sort(files, (a, b) -> a.equals(CHART_FILE) ? -1 : b.equals(CHART_FILE) ? 1 : a.compareTo(b));
+		return files;
+	}
+
+	/**
+	 * Replace top level "version" and "appVersion" of "Chart.yaml" while keeping all other content untouched.
+	 *
+	 * @param content    content of "Chart.yaml"
+	 * @param version    version to set, <code>null</code> to keep version
+	 * @param appVersion app version to set, <code>null</code> to keep app version
+	 * @return Rewritten content.
+	 */
+	static String rewriteChartFile(String content, String version, String appVersion) {
+		String rewritten = replaceField(content, "version", version);
+		return replaceField(rewritten, "appVersion", appVersion);
+	}
+
+	private static String replaceField(String content, String field, String value) {
+		if (value == null) {
+			return content;
+		}
+		String line = field + ": \"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+
+		// only keys at column zero are top level, indented lines below the key continue its value
+
+		List<String> lines = new ArrayList<>(Arrays.asList(content.split("\n", -1)));
+		Pattern key = Pattern.compile("^(" + field + "|\"" + field + "\"|'" + field + "')[ \t]*:([ \t].*)?\r?$");
+		for (int i = 0; i < lines.size(); i++) {
+			if (key.matcher(lines.get(i)).matches()) {
+				int end = i + 1;
+				while (end < lines.size() && isContinuation(lines, end)) {
+					end++;
+				}
+				String replacement = line + (lines.get(end - 1).endsWith("\r") ? "\r" : "");
+				lines.subList(i, end).clear();
+				lines.add(i, replacement);
+				return String.join("\n", lines);
+			}
+		}
+		return content + (content.isEmpty() || content.endsWith("\n") ? "" : "\n") + line + "\n";
+	}
+
+	/** Indented line or blank line followed by an indented line. */
+	private static boolean isContinuation(List<String> lines, int index) {
+		for (int i = index; i < lines.size(); i++) {
+			String line = lines.get(i);
+			if (!line.trim().isEmpty()) {
+				return line.startsWith(" ") || line.startsWith("\t");
+			}
+		}
+		return false;
+	}
+
+	private static String relativize(Path chartDirectory, Path path) {
+		return chartDirectory.relativize(path).toString().replace('\\', '/');
+	}
+
+	/** Writes entries into archive. */
+	@FunctionalInterface
+	private interface Entries {
+		void write(TarArchiveOutputStream tar, Date modified) throws IOException;
+	}
+}
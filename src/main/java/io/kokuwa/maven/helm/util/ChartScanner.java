@@ -0,0 +1,150 @@
+package io.kokuwa.maven.helm.util;
+
+import java.io.IOException;
+import java.nio.file.FileSystemLoopException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.codehaus.plexus.util.MatchPatterns;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Finds chart directories below a root directory. Subtrees that cannot contain charts are not walked: directories
+ * excluded with a pattern ending in "/**", "node_modules" and dependencies in "charts" of a chart. Results are
+ * cached for the lifetime of the plugin class loader, which is the build session, and reused as long as no walked
+ * directory was modified.
+ *
+ * @since 6.18.0
+ */
+public class ChartScanner {
+
+	/** Directories modified this recently may change again within file system timestamp granularity. */
+	private static final long RACY_MILLIS = 2000;
+	private static final Map<List<Object>, Result> CACHE = new ConcurrentHashMap<>();
+	private static final Set<String> PRUNED_DIRECTORIES = Collections.singleton("node_modules");
+
+	/**
+	 * Find chart directories.
+	 *
+	 * @param root       root directory to scan
+	 * @param exclusions patterns of chart directories to exclude
+	 * @return Chart directories in reverse order, so dependencies are processed before parent charts.
+	 * @throws IOException Unable to scan root directory.
+	 */
+	public static List<Path> scan(Path root, List<String> exclusions) throws IOException {
+		List<Object> key = Arrays.asList(root.toAbsolutePath().normalize().toString(), root.toString(), exclusions);
+		Result cached = CACHE.get(key);
+		if (cached != null && cached.isValid()) {
+			return cached.chartDirectories;
+		}
+		CACHE.remove(key);
+
+		long started = System.currentTimeMillis();
+		MatchPatterns exclusionPatterns = MatchPatterns.from(exclusions);
+		MatchPatterns subtreePatterns = MatchPatterns.from(exclusions.stream()
+				.filter(pattern -> pattern.endsWith("/**") || pattern.endsWith("\\**"))
+				.map(pattern -> pattern.substring(0, pattern.length() - 3))
+				.collect(Collectors.toList()));
+		List<Path> chartDirectories = new ArrayList<>();
+		Map<Path, FileTime> stamps = new HashMap<>();
+		Set<Object> visited = new HashSet<>();
+		Files.walkFileTree(root, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE,
+				new SimpleFileVisitor<Path>() {
+
+					@Override
+					public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+						if (!dir.equals(root) && isPruned(dir, subtreePatterns)) {
+							return FileVisitResult.SKIP_SUBTREE;
+						}
+						Object fileKey = attrs.fileKey() != null ? attrs.fileKey() : dir.toRealPath();
+						if (!visited.add(fileKey)) {
+							return FileVisitResult.SKIP_SUBTREE;
+						}
+						stamps.put(dir, attrs.lastModifiedTime());
+						return FileVisitResult.CONTINUE;
+					}
+
+					@Override
+					public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+						if (file.getFileName().toString().equalsIgnoreCase("chart.yaml")) {
+							Path chartDirectory = file.getParent();
+							if (!exclusionPatterns.matches(chartDirectory.toString(), false)) {
+								chartDirectories.add(chartDirectory);
+							}
+						}
+						return FileVisitResult.CONTINUE;
+					}
+
+					@Override
+					public FileVisitResult visitFileFailed(Path file, IOException exc) throws IOException {
+						if (exc instanceof FileSystemLoopException) {
+							return FileVisitResult.CONTINUE;
+						}
+						throw exc;
+					}
+				});
+		chartDirectories.sort(Comparator.reverseOrder());
+
+		Result result = new Result(Collections.unmodifiableList(chartDirectories), stamps);
+		if (stamps.values().stream().allMatch(stamp -> stamp.toMillis() < started - RACY_MILLIS)) {
+			CACHE.put(key, result);
+		}
+		return result.chartDirectories;
+	}
+
+	/**
+	 * Check if a directory cannot contain relevant charts: excluded with all its content, a package manager directory
+	 * or the "charts" directory of a chart, which contains dependencies only.
+	 */
+	private static boolean isPruned(Path dir, MatchPatterns subtreePatterns) {
+		String name = dir.getFileName().toString();
+		if (PRUNED_DIRECTORIES.contains(name) || subtreePatterns.matches(dir.toString(), false)) {
+			return true;
+		}
+		return name.equals("charts") && (Files.isRegularFile(dir.resolveSibling("Chart.yaml"))
+				|| Files.isRegularFile(dir.resolveSibling("chart.yaml")));
+	}
+
+	@RequiredArgsConstructor
+	private static class Result {
+
+		private final List<Path> chartDirectories;
+		private final Map<Path, FileTime> stamps;
+
+		/**
+		 * Adding, removing or renaming an entry changes the modification time of its directory, so comparing all
+		 * directory stamps detects every change that affects the scan without listing any directory.
+		 */
+		private boolean isValid() {
+			for (Entry<Path, FileTime> stamp : stamps.entrySet()) {
+				try {
+					if (!Files.getLastModifiedTime(stamp.getKey()).equals(stamp.getValue())) {
+						return false;
+					}
+				} catch (IOException e) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+}
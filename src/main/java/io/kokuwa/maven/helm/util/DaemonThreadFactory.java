@@ -0,0 +1,31 @@
+package io.kokuwa.maven.helm.util;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates named daemon threads, so idle pools never block JVM shutdown.
+ *
+ * @since 6.18.0
+ */
+public class DaemonThreadFactory implements ThreadFactory {
+
+	private final AtomicInteger counter = new AtomicInteger();
+	private final String prefix;
+
+	/**
+	 * Constructor for setting constants
+	 *
+	 * @param prefix prefix for thread names
+	 */
+	public DaemonThreadFactory(String prefix) {
+		this.prefix = prefix;
+	}
+
+	@Override
+	public Thread newThread(Runnable runnable) {
+		Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+		thread.setDaemon(true);
+		return thread;
+	}
+}
@@ -0,0 +1,96 @@
+package io.kokuwa.maven.helm.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.maven.plugin.MojoExecutionException;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Mutex backed by a lock file, excludes threads of this JVM and other processes. File locks are held on behalf of
+ * the whole JVM, so threads are serialized by an additional lock per file.
+ *
+ * @since 6.18.0
+ */
+@RequiredArgsConstructor
+public class FileMutex implements Closeable {
+
+	private static final Map<Path, ReentrantLock> LOCKS = new ConcurrentHashMap<>();
+
+	private final ReentrantLock lock;
+	private final FileChannel channel;
+	private final FileLock fileLock;
+
+	/**
+	 * Acquire mutex, blocks until no other thread or process holds it.
+	 *
+	 * @param lockFile file to lock, created if missing
+	 * @return Mutex to close for release.
+	 * @throws IOException Unable to create or lock file.
+	 */
+	public static FileMutex lock(Path lockFile) throws IOException {
+		Path file = lockFile.toAbsolutePath().normalize();
+		ReentrantLock lock = LOCKS.computeIfAbsent(file, f -> new ReentrantLock());
+		lock.lock();
+		FileChannel channel = null;
+		try {
+			Files.createDirectories(file.getParent());
+			channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+			return new FileMutex(lock, channel, channel.lock());
+		} catch (IOException | RuntimeException e) {
+			if (channel != null) {
+				channel.close();
+			}
+			lock.unlock();
+			throw e;
+		}
+	}
+
+	/**
+	 * Run action while holding the mutex.
+	 *
+	 * @param <T>      type of result
+	 * @param lockFile file to lock, created if missing
+	 * @param action   action to run exclusively
+	 * @return Result of action.
+	 * @throws IOException            Unable to lock file or action failed.
+	 * @throws MojoExecutionException Action failed.
+	 */
+	public static <T> T withLock(Path lockFile, Action<T> action) throws IOException, MojoExecutionException {
+		FileMutex mutex = lock(lockFile);
+		try {
+			return action.run();
+		} finally {
+			mutex.close();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			fileLock.release();
+			channel.close();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Action executed while holding the mutex.
+	 *
+	 * @param <T> type of result
+	 */
+	@FunctionalInterface
+	public interface Action<T> {
+		T run() throws IOException, MojoExecutionException;
+	}
+}
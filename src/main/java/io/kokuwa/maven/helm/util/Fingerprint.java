@@ -0,0 +1,138 @@
+package io.kokuwa.maven.helm.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitOption;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Builds a SHA-256 fingerprint of values, files and directory trees.
+ *
+ * @since 6.18.0
+ */
+public class Fingerprint {
+
+	/** Digests of files by path, size and modification time, so unchanged files are hashed once per JVM. */
+	private static final Map<String, String> FILE_DIGESTS = new ConcurrentHashMap<>();
+
+	private final MessageDigest digest = newDigest();
+
+	/**
+	 * Add a named value.
+	 *
+	 * @param name  name of value
+	 * @param value value, <code>null</code> is allowed
+	 * @return this fingerprint
+	 */
+	public Fingerprint add(String name, Object value) {
+		update(name + "=" + value + "\n");
+		return this;
+	}
+
+	/**
+	 * Add content of a file. Missing files are added as missing.
+	 *
+	 * @param name name of file
+	 * @param file path to file
+	 * @return this fingerprint
+	 * @throws IOException Unable to read file.
+	 */
+	public Fingerprint addFile(String name, Path file) throws IOException {
+		return add(name, Files.isRegularFile(file) ? digest(file) : "missing");
+	}
+
+	/**
+	 * Add relative path and content of all files in a directory tree.
+	 *
+	 * @param name      name of directory
+	 * @param directory root of directory tree
+	 * @return this fingerprint
+	 * @throws IOException Unable to walk directory or read files.
+	 */
+	public Fingerprint addDirectory(String name, Path directory) throws IOException {
+		List<Path> files;
+		try (Stream<Path> stream = Files.walk(directory, FileVisitOption.FOLLOW_LINKS)) {
+			files = stream.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+		}
+		add(name, files.size());
+		for (Path file : files) {
+			add(directory.relativize(file).toString().replace('\\', '/'), digest(file));
+		}
+		return this;
+	}
+
+	/** @return Hex encoded fingerprint. */
+	public String hex() {
+		return hex(digest.digest());
+	}
+
+	/**
+	 * Get SHA-256 digest of a file, cached by path, size and modification time.
+	 *
+	 * @param file file to hash
+	 * @return Hex encoded digest.
+	 * @throws IOException Unable to read file.
+	 */
+	public static String digest(Path file) throws IOException {
+		Path absolute = file.toAbsolutePath().normalize();
+		String key = absolute + ":" + Files.size(absolute) + ":" + Files.getLastModifiedTime(absolute).toMillis();
+		try {
+			return FILE_DIGESTS.computeIfAbsent(key, k -> {
+				MessageDigest fileDigest = newDigest();
+				try (InputStream input = new DigestInputStream(Files.newInputStream(absolute), fileDigest)) {
+					byte[] buffer = new byte[8192];
+					while (input.read(buffer) != -1) {
+						// only digest is needed
+					}
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+				return hex(fileDigest.digest());
+			});
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Encode bytes as lower case hex string.
+	 *
+	 * @param bytes bytes to encode
+	 * @return Hex string.
+	 */
+	public static String hex(byte[] bytes) {
+		StringBuilder hex = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes) {
+			hex.append(String.format("%02x", b));
+		}
+		return hex.toString();
+	}
+
+	private void update(String value) {
+		digest.update(value.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Create SHA-256 digest as used for all fingerprints.
+	 *
+	 * @return New digest.
+	 */
+	public static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 not supported", e);
+		}
+	}
+}
@@ -0,0 +1,160 @@
+package io.kokuwa.maven.helm.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Rules of a ".helmignore" file, evaluated the same way as helm does.
+ *
+ * @see <a href="https://helm.sh/docs/chart_template_guide/helm_ignore_file/">.helmignore</a>
+ * @since 6.18.0
+ */
+public class HelmIgnore {
+
+	public static final String FILE_NAME = ".helmignore";
+
+	private final List<Rule> rules = new ArrayList<>();
+
+	/**
+	 * Read rules from ".helmignore" in chart directory, if present. Default rules of helm are always added.
+	 *
+	 * @param chartDirectory directory of chart
+	 * @return Rules for chart.
+	 * @throws IOException Unable to read or parse ".helmignore".
+	 */
+	public static HelmIgnore of(Path chartDirectory) throws IOException {
+		HelmIgnore ignore = new HelmIgnore();
+		Path file = chartDirectory.resolve(FILE_NAME);
+		if (Files.isRegularFile(file)) {
+			for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+				ignore.add(line);
+			}
+		}
+		// same as helm: ignore hidden files in templates directory
+		ignore.add("templates/.?*");
+		return ignore;
+	}
+
+	/**
+	 * Add rule.
+	 *
+	 * @param line line of ".helmignore"
+	 * @return this rules
+	 * @throws IOException Rule not supported by helm.
+	 */
+	public HelmIgnore add(String line) throws IOException {
+		String rule = line.trim();
+		if (rule.isEmpty() || rule.startsWith("#")) {
+			return this;
+		}
+		if (rule.contains("**")) {
+			throw new IOException("double-star (**) syntax is not supported in " + FILE_NAME + ": " + line);
+		}
+		boolean negate = rule.startsWith("!");
+		if (negate) {
+			rule = rule.substring(1);
+		}
+		boolean directoryOnly = rule.endsWith("/");
+		if (directoryOnly) {
+			rule = rule.substring(0, rule.length() - 1);
+		}
+		boolean baseNameOnly = !rule.contains("/");
+		if (rule.startsWith("/")) {
+			rule = rule.substring(1);
+		}
+		rules.add(new Rule(negate, directoryOnly, baseNameOnly, toRegex(rule)));
+		return this;
+	}
+
+	/**
+	 * Check if a path is ignored.
+	 *
+	 * @param path      path relative to chart directory with "/" as separator
+	 * @param directory <code>true</code> if path is a directory
+	 * @return <code>true</code> if ignored
+	 */
+	public boolean isIgnored(String path, boolean directory) {
+		if (path.isEmpty() || path.equals(".") || path.equals("./")) {
+			return false;
+		}
+		for (Rule rule : rules) {
+			// helm quirk: negated rules ignore everything they do not match
+			if (rule.negate) {
+				if (rule.directoryOnly && !directory || !rule.matches(path)) {
+					return true;
+				}
+				continue;
+			}
+			if (rule.directoryOnly && !directory) {
+				continue;
+			}
+			if (rule.matches(path)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Converts a pattern of go's "filepath.Match" to a regular expression.
+	 *
+	 * @param glob pattern with "*", "?", "[...]" and "\" escapes
+	 * @return Compiled regular expression.
+	 */
+	private static Pattern toRegex(String glob) {
+		StringBuilder regex = new StringBuilder();
+		for (int i = 0; i < glob.length(); i++) {
+			char c = glob.charAt(i);
+			switch (c) {
+				case '*':
+					regex.append("[^/]*");
+					break;
+				case '?':
+					regex.append("[^/]");
+					break;
+				case '[':
+					int end = glob.indexOf(']', i + 2);
+					if (end < 0) {
+						regex.append("\\[");
+						break;
+					}
+					String range = glob.substring(i + 1, end);
+					regex.append('[')
+							.append(range.startsWith("^") ? "^/" + range.substring(1).replace("\\", "\\\\")
+									: range.replace("\\", "\\\\"))
+							.append(']');
+					i = end;
+					break;
+				case '\\':
+					if (i + 1 < glob.length()) {
+						regex.append(Pattern.quote(String.valueOf(glob.charAt(++i))));
+					}
+					break;
+				default:
+					regex.append(Pattern.quote(String.valueOf(c)));
+			}
+		}
+		return Pattern.compile(regex.toString());
+	}
+
+	@RequiredArgsConstructor
+	private static class Rule {
+
+		private final boolean negate;
+		private final boolean directoryOnly;
+		private final boolean baseNameOnly;
+		private final Pattern pattern;
+
+		private boolean matches(String path) {
+			String name = baseNameOnly ? path.substring(path.lastIndexOf('/') + 1) : path;
+			return pattern.matcher(name).matches();
+		}
+	}
+}
@@ -0,0 +1,323 @@
+package io.kokuwa.maven.helm.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.apache.commons.compress.utils.IOUtils;
+import org.apache.maven.plugin.logging.Log;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.kokuwa.maven.helm.pojo.CacheMetadata;
+import lombok.Setter;
+
+/**
+ * Downloads files with timeouts and retries. Interrupted downloads are resumed with HTTP range requests if the server
+ * supports them.
+ *
+ * @since 6.18.0
+ */
+@Setter
+public class HttpDownloader {
+
+	private static final int HTTP_RANGE_NOT_SATISFIABLE = 416;
+	private static final ObjectMapper MAPPER = new ObjectMapper().findAndRegisterModules();
+
+	private final Log log;
+	private final ConnectionFactory connectionFactory;
+
+	private Duration connectTimeout = Duration.ofSeconds(30);
+	private Duration readTimeout = Duration.ofSeconds(60);
+	/** Number of retries after the first attempt. */
+	private int retries = 3;
+	/** Delay before first retry, doubled for each further retry. */
+	private Duration retryDelay = Duration.ofSeconds(1);
+
+	/**
+	 * Constructor for setting constants
+	 *
+	 * @param log               used to write output from the util
+	 * @param connectionFactory used to open connections, e.g. with proxy
+	 */
+	public HttpDownloader(Log log, ConnectionFactory connectionFactory) {
+		this.log = log;
+		this.connectionFactory = connectionFactory;
+	}
+
+	/**
+	 * Download to file. Existing content of file is treated as a previously interrupted download and resumed. The
+	 * validator (ETag or Last-Modified) of the first response is kept next to the file and sent as "If-Range", so a
+	 * file changed on server is downloaded again instead of appended to the old content.
+	 *
+	 * @param url    url to download
+	 * @param target file to write, kept on failure to resume later
+	 * @return SHA-256 of downloaded file as hex.
+	 * @throws IOException Download failed after all retries.
+	 */
+	public String download(URL url, Path target) throws IOException {
+		return retry(url, () -> downloadOnce(url, target));
+	}
+
+	/**
+	 * Download to file if modified since last download. Uses "If-None-Match" and "If-Modified-Since" with validators
+	 * of given metadata if target exists and was downloaded from the same url, so an unchanged file costs one round
+	 * trip. The file is replaced atomically.
+	 *
+	 * @param url      url to download
+	 * @param target   file to write
+	 * @param metadata validators of previous download, updated after download
+	 * @return <code>true</code> if downloaded, <code>false</code> if not modified.
+	 * @throws IOException Download failed after all retries.
+	 */
+	public boolean downloadIfModified(URL url, Path target, CacheMetadata metadata) throws IOException {
+		boolean conditional = Files.isRegularFile(target) && url.toString().equals(metadata.getUrl());
+		return retry(url, () -> {
+
+			URLConnection connection = connectionFactory.open(url);
+			if (conditional) {
+				Optional.ofNullable(metadata.getEtag())
+						.ifPresent(etag -> connection.setRequestProperty("If-None-Match", etag));
+				Optional.ofNullable(metadata.getLastModified())
+						.ifPresent(date -> connection.setRequestProperty("If-Modified-Since", date));
+			}
+			connect(url, connection);
+			if (connection instanceof HttpURLConnection
+					&& ((HttpURLConnection) connection).getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+				log.debug("Not modified: " + url);
+				metadata.setTimestamp(Instant.now());
+				return false;
+			}
+
+			Path temp = Files.createTempFile(target.toAbsolutePath().getParent(), target.getFileName().toString(),
+					".tmp");
+			try {
+				try (InputStream input = connection.getInputStream()) {
+					Files.copy(input, temp, StandardCopyOption.REPLACE_EXISTING);
+				}
+				Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} finally {
+				Files.deleteIfExists(temp);
+			}
+			metadata.setUrl(url.toString())
+					.setEtag(connection.getHeaderField("ETag"))
+					.setLastModified(connection.getHeaderField("Last-Modified"))
+					.setTimestamp(Instant.now());
+			return true;
+		});
+	}
+
+	/**
+	 * Download to file if modified since last download, validators are kept in given metadata file. Both files are
+	 * replaced atomically.
+	 *
+	 * @param url          url to download
+	 * @param target       file to write
+	 * @param metadataFile file with validators of previous download, updated after download
+	 * @return <code>true</code> if downloaded, <code>false</code> if not modified.
+	 * @throws IOException Download failed after all retries.
+	 * @see #downloadIfModified(URL, Path, CacheMetadata)
+	 */
+	public boolean downloadIfModified(URL url, Path target, Path metadataFile) throws IOException {
+		CacheMetadata metadata = new CacheMetadata();
+		if (Files.isRegularFile(metadataFile)) {
+			try {
+				metadata = MAPPER.readValue(metadataFile.toFile(), CacheMetadata.class);
+			} catch (IOException e) {
+				log.debug("Ignore invalid metadata " + metadataFile, e);
+			}
+		}
+		boolean modified = downloadIfModified(url, target, metadata);
+		Path temp = Files.createTempFile(metadataFile.toAbsolutePath().getParent(),
+				metadataFile.getFileName().toString(), ".tmp");
+		try {
+			MAPPER.writeValue(temp.toFile(), metadata);
+			Files.move(temp, metadataFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+		return modified;
+	}
+
+	/**
+	 * Download small content into memory.
+	 *
+	 * @param url url to download
+	 * @return Downloaded bytes.
+	 * @throws IOException Download failed after all retries.
+	 */
+	public byte[] fetch(URL url) throws IOException {
+		return retry(url, () -> {
+			URLConnection connection = open(url, 0, null);
+			try (InputStream input = connection.getInputStream()) {
+				return IOUtils.toByteArray(input);
+			}
+		});
+	}
+
+	private String downloadOnce(URL url, Path target) throws IOException {
+
+		Path validatorFile = target.resolveSibling(target.getFileName() + ".validator");
+		long existing = Files.isRegularFile(target) ? Files.size(target) : 0;
+		String validator = existing > 0 && Files.isRegularFile(validatorFile)
+				? new String(Files.readAllBytes(validatorFile), StandardCharsets.UTF_8)
+				: null;
+		URLConnection connection;
+		try {
+			connection = open(url, existing, validator);
+		} catch (RangeNotSatisfiableException e) {
+			// partial file is already complete or belongs to another version of the file
+			log.info("Restarting download of " + url + ", server rejected resume at " + existing + " bytes");
+			Files.delete(target);
+			existing = 0;
+			connection = open(url, 0, null);
+		}
+		boolean resume = existing > 0 && connection instanceof HttpURLConnection
+				&& ((HttpURLConnection) connection).getResponseCode() == HttpURLConnection.HTTP_PARTIAL;
+		if (!resume) {
+			// server sent the complete file: partial file is truncated, keep validator for the next resume
+			if (existing > 0) {
+				log.info("Restarting download of " + url + ", file changed or server does not support resume");
+			}
+			Optional<String> newValidator = validator(connection);
+			if (newValidator.isPresent()) {
+				Files.write(validatorFile, newValidator.get().getBytes(StandardCharsets.UTF_8));
+			} else {
+				Files.deleteIfExists(validatorFile);
+			}
+		}
+
+		MessageDigest digest = Fingerprint.newDigest();
+		if (resume) {
+			log.info("Resuming download of " + url + " at " + existing + " bytes");
+			try (InputStream input = new DigestInputStream(Files.newInputStream(target), digest)) {
+				IOUtils.skip(input, Long.MAX_VALUE);
+			}
+		}
+
+		try (InputStream input = new DigestInputStream(connection.getInputStream(), digest);
+				OutputStream output = Files.newOutputStream(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+						resume ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING)) {
+			IOUtils.copy(input, output);
+		}
+
+		long expected = connection.getContentLengthLong();
+		long actual = Files.size(target);
+		if (expected >= 0 && actual != (resume ? existing : 0) + expected) {
+			throw new IOException("Incomplete download of " + url + ", got " + actual + " bytes");
+		}
+		Files.deleteIfExists(validatorFile);
+		return Fingerprint.hex(digest.digest());
+	}
+
+	private URLConnection open(URL url, long offset, String validator) throws IOException {
+		URLConnection connection = connectionFactory.open(url);
+		if (offset > 0) {
+			connection.setRequestProperty("Range", "bytes=" + offset + "-");
+			if (validator != null) {
+				connection.setRequestProperty("If-Range", validator);
+			}
+		}
+		connect(url, connection);
+		return connection;
+	}
+
+	/** Strong ETag or Last-Modified, weak ETags are not allowed for "If-Range". */
+	private static Optional<String> validator(URLConnection connection) {
+		String etag = connection.getHeaderField("ETag");
+		if (etag != null && !etag.startsWith("W/")) {
+			return Optional.of(etag);
+		}
+		return Optional.ofNullable(connection.getHeaderField("Last-Modified"));
+	}
+
+	/** Apply timeouts, connect and fail for error responses. */
+	private void connect(URL url, URLConnection connection) throws IOException {
+		connection.setConnectTimeout((int) connectTimeout.toMillis());
+		connection.setReadTimeout((int) readTimeout.toMillis());
+		if (connection instanceof HttpURLConnection) {
+			int status = ((HttpURLConnection) connection).getResponseCode();
+			if (status >= HttpURLConnection.HTTP_BAD_REQUEST) {
+				String message = "Download of " + url + " failed with status " + status;
+				boolean retryable = status >= HttpURLConnection.HTTP_INTERNAL_ERROR
+						|| status == HttpURLConnection.HTTP_CLIENT_TIMEOUT
+						|| status == 429;
+				if (status == HTTP_RANGE_NOT_SATISFIABLE) {
+					throw new RangeNotSatisfiableException(message);
+				}
+				throw retryable ? new IOException(message) : new NonRetryableException(message);
+			}
+		}
+	}
+
+	private <T> T retry(URL url, Attempt<T> attempt) throws IOException {
+		for (int i = 0;; i++) {
+			try {
+				return attempt.run();
+			} catch (NonRetryableException e) {
+				throw e;
+			} catch (IOException e) {
+				if (i >= retries) {
+					throw e;
+				}
+				// exponential backoff with jitter, so parallel builds do not retry in lockstep
+				long delay = (long) (retryDelay.toMillis() * Math.pow(2, i)
+						* ThreadLocalRandom.current().nextDouble(0.5, 1.5));
+				log.warn("Download of " + url + " failed (attempt " + (i + 1) + " of " + (retries + 1) + "): "
+						+ e.getMessage() + ", retrying in " + delay + "ms");
+				try {
+					Thread.sleep(delay);
+				} catch (InterruptedException interrupted) {
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException("Interrupted while waiting to retry download of " + url);
+				}
+			}
+		}
+	}
+
+	/** Opens connections, e.g. with proxy. */
+	@FunctionalInterface
+	public interface ConnectionFactory {
+		URLConnection open(URL url) throws IOException;
+	}
+
+	@FunctionalInterface
+	private interface Attempt<T> {
+		T run() throws IOException;
+	}
+
+	/** Failure that will not be resolved by retrying, e.g. "404 Not Found". */
+	private static class NonRetryableException extends IOException {
+
+		private static final long serialVersionUID = 1L;
+
+		private NonRetryableException(String message) {
+			super(message);
+		}
+	}
+
+	/** Range request for a partial file was rejected with "416 Range Not Satisfiable". */
+	private static class RangeNotSatisfiableException extends NonRetryableException {
+
+		private static final long serialVersionUID = 1L;
+
+		private RangeNotSatisfiableException(String message) {
+			super(message);
+		}
+	}
+}
@@ -0,0 +1,157 @@
+package io.kokuwa.maven.helm.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.maven.plugin.MojoExecutionException;
+
+/**
+ * Runs a task for each item on a bounded number of workers and reports all failures together at the end.
+ *
+ * @since 6.18.0
+ */
+public class ParallelExecutor {
+
+	/** Worker threads shared by all goals and modules of this build. */
+	private static final ExecutorService POOL = Executors.newCachedThreadPool(new DaemonThreadFactory("helm-worker"));
+
+	private final int parallelism;
+
+	/**
+	 * Constructor for setting constants
+	 *
+	 * @param parallelism maximum number of items processed at the same time
+	 */
+	public ParallelExecutor(int parallelism) {
+		this.parallelism = Math.max(1, parallelism);
+	}
+
+	/**
+	 * Parse parallelism setting, accepts a plain number, "cores" or a multiple of cores like "2C" or "0.5C".
+	 *
+	 * @param value configured value
+	 * @return number of workers, at least one
+	 * @throws MojoExecutionException Invalid value.
+	 */
+	public static int parseParallelism(String value) throws MojoExecutionException {
+		if (value == null || value.trim().isEmpty()) {
+			return 1;
+		}
+		String normalized = value.trim().toLowerCase(Locale.US);
+		int cores = Runtime.getRuntime().availableProcessors();
+		try {
+			if (normalized.equals("cores")) {
+				return cores;
+			}
+			if (normalized.endsWith("c")) {
+				double factor = Double.parseDouble(normalized.substring(0, normalized.length() - 1));
+				return Math.max(1, (int) Math.ceil(factor * cores));
+			}
+			return Math.max(1, Integer.parseInt(normalized));
+		} catch (NumberFormatException e) {
+			throw new MojoExecutionException("Invalid parallelism '" + value + "', use a number, 'cores' or 'NC'.");
+		}
+	}
+
+	/**
+	 * Execute task for every item. A failing item does not stop the remaining items.
+	 *
+	 * @param <T>   type of items
+	 * @param items items to process, processing starts in list order
+	 * @param task  task to execute for each item
+	 * @throws MojoExecutionException At least one item failed.
+	 */
+	public <T> void execute(List<T> items, Task<T> task) throws MojoExecutionException {
+
+		Map<T, Exception> failures = Collections.synchronizedMap(new LinkedHashMap<>());
+		int workers = Math.min(parallelism, items.size());
+		if (workers <= 1) {
+			for (T item : items) {
+				run(item, task, failures);
+			}
+		} else {
+			Queue<T> queue = new ConcurrentLinkedQueue<>(items);
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < workers; i++) {
+				futures.add(POOL.submit(() -> {
+					T item;
+					while ((item = queue.poll()) != null) {
+						run(item, task, failures);
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				try {
+					future.get();
+				} catch (InterruptedException e) {
+					futures.forEach(f -> f.cancel(true));
+					Thread.currentThread().interrupt();
+					throw new MojoExecutionException("Interrupted while waiting for workers", e);
+				} catch (ExecutionException e) {
+					throw new MojoExecutionException("Worker failed unexpectedly", e.getCause());
+				}
+			}
+		}
+
+		report(items, failures);
+	}
+
+	private <T> void run(T item, Task<T> task, Map<T, Exception> failures) {
+		try {
+			task.execute(item);
+		} catch (MojoExecutionException | RuntimeException e) {
+			failures.put(item, e);
+		}
+	}
+
+	private <T> void report(List<T> items, Map<T, Exception> failures) throws MojoExecutionException {
+
+		if (failures.isEmpty()) {
+			return;
+		}
+
+		List<Exception> ordered = new ArrayList<>();
+		StringBuilder message = new StringBuilder();
+		for (T item : items) {
+			Exception failure = failures.get(item);
+			if (failure != null) {
+				ordered.add(failure);
+				message.append("\n - ").append(item).append(": ").append(failure.getMessage());
+			}
+		}
+
+		// keep original exception if there is nothing to aggregate
+		if (ordered.size() == 1) {
+			Exception failure = ordered.get(0);
+			if (failure instanceof MojoExecutionException) {
+				throw (MojoExecutionException) failure;
+			}
+			throw (RuntimeException) failure;
+		}
+
+		MojoExecutionException exception = new MojoExecutionException(
+				ordered.size() + " of " + items.size() + " failed:" + message);
+		ordered.forEach(exception::addSuppressed);
+		throw exception;
+	}
+
+	/**
+	 * Task executed for a single item.
+	 *
+	 * @param <T> type of item
+	 */
+	@FunctionalInterface
+	public interface Task<T> {
+		void execute(T item) throws MojoExecutionException;
+	}
+}
@@ -0,0 +1,304 @@
+package io.kokuwa.maven.helm.util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.fasterxml.jackson.dataformat.yaml.YAMLGenerator;
+import com.fasterxml.jackson.dataformat.yaml.YAMLMapper;
+
+import io.kokuwa.maven.helm.pojo.RepositoriesFile;
+import lombok.Setter;
+import lombok.Value;
+
+/**
+ * Registers helm repositories without spawning "helm repo add" for each repository. Reads "repositories.yaml" once,
+ * fetches the index of new or changed repositories concurrently into the repository cache and writes
+ * "repositories.yaml" once.
+ *
+ * @since 6.18.0
+ */
+@Setter
+public class RepositoryRegistry {
+
+	private static final ObjectMapper MAPPER = new YAMLMapper(YAMLFactory.builder()
+			.disable(YAMLGenerator.Feature.WRITE_DOC_START_MARKER)
+			.enable(YAMLGenerator.Feature.MINIMIZE_QUOTES)
+			.build())
+			.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+	private final Log log;
+	private final Path repositoryConfig;
+	private final Path repositoryCache;
+	private final HttpDownloader.ConnectionFactory connectionFactory;
+	private final Map<String, Request> requests = new LinkedHashMap<>();
+
+	/** Maximum number of indexes fetched at the same time. */
+	private int parallelism = 4;
+	/** Use cached indexes only and fail if an index is not cached. */
+	private boolean offline;
+
+	/**
+	 * Constructor for setting constants
+	 *
+	 * @param log               used to write output from the util
+	 * @param repositoryConfig  "repositories.yaml" to update
+	 * @param repositoryCache   directory for repository indexes
+	 * @param connectionFactory used to open connections, e.g. with proxy
+	 */
+	public RepositoryRegistry(Log log, Path repositoryConfig, Path repositoryCache,
+			HttpDownloader.ConnectionFactory connectionFactory) {
+		this.log = log;
+		this.repositoryConfig = repositoryConfig;
+		this.repositoryCache = repositoryCache;
+		this.connectionFactory = connectionFactory;
+	}
+
+	/**
+	 * Queue repository for registration, equivalent to "helm repo add".
+	 *
+	 * @param entry       repository to add
+	 * @param forceUpdate replace existing repository with same name and different configuration
+	 * @return This registry for chaining.
+	 */
+	public RepositoryRegistry add(RepositoriesFile.Entry entry, boolean forceUpdate) {
+		requests.put(entry.getName(), new Request(entry, forceUpdate));
+		return this;
+	}
+
+	/**
+	 * Register all queued repositories. Repositories already present with same configuration are skipped. Nothing is
+	 * written if any index cannot be fetched.
+	 *
+	 * @throws MojoExecutionException Repository exists with different configuration or index is not available.
+	 */
+	public void register() throws MojoExecutionException {
+
+		if (requests.isEmpty()) {
+			return;
+		}
+
+		try {
+			Files.createDirectories(repositoryConfig.toAbsolutePath().getParent());
+			Files.createDirectories(repositoryCache);
+		} catch (IOException e) {
+			throw new MojoExecutionException("Unable to create directories for " + repositoryConfig, e);
+		}
+
+		try {
+			FileMutex.withLock(lockFile(), () -> {
+				RepositoriesFile file = read();
+				List<RepositoriesFile.Entry> updates = new ArrayList<>();
+				for (Request request : requests.values()) {
+					RepositoriesFile.Entry entry = request.getEntry();
+					Optional<RepositoriesFile.Entry> existing = file.getRepositories().stream()
+							.filter(e -> Objects.equals(e.getName(), entry.getName())).findFirst();
+					if (!request.isForceUpdate() && existing.isPresent()) {
+						if (!existing.get().equals(entry)) {
+							throw new MojoExecutionException("repository name (" + entry.getName()
+									+ ") already exists, please specify a different name");
+						}
+						log.info("Repo " + entry.getName() + " already exists with the same configuration, skipping");
+						continue;
+					}
+					updates.add(entry);
+				}
+				if (updates.isEmpty()) {
+					return null;
+				}
+
+				new ParallelExecutor(parallelism).execute(updates, this::fetchIndex);
+
+				for (RepositoriesFile.Entry entry : updates) {
+					file.getRepositories().removeIf(e -> Objects.equals(e.getName(), entry.getName()));
+					file.getRepositories().add(entry);
+					log.info("Repo " + entry.getName() + " has been added to your repositories");
+				}
+				write(file);
+				return null;
+			});
+		} catch (IOException e) {
+			throw new MojoExecutionException("Unable to update " + repositoryConfig, e);
+		}
+	}
+
+	/**
+	 * Refresh indexes of all repositories in "repositories.yaml" concurrently, like "helm repo update" does. Indexes
+	 * are requested conditionally with validators of the previous fetch, so an unchanged index costs one round trip.
+	 * Repositories with TLS client settings are left to helm. Holds the same lock as {@link #register()}, so modules
+	 * do not replace index files while others are reading or writing them.
+	 *
+	 * @return <code>true</code> if all indexes were refreshed, <code>false</code> if some are left to helm.
+	 * @throws MojoExecutionException Index is not available.
+	 */
+	public boolean refresh() throws MojoExecutionException {
+		try {
+			return FileMutex.withLock(lockFile(), () -> {
+				List<RepositoriesFile.Entry> entries = new ArrayList<>();
+				boolean complete = true;
+				for (RepositoriesFile.Entry entry : read().getRepositories()) {
+					if (entry.isInsecureSkipTlsVerify() || !entry.getCaFile().isEmpty()
+							|| !entry.getCertFile().isEmpty() || !entry.getKeyFile().isEmpty()) {
+						log.debug("Repo " + entry.getName() + " has TLS settings, leave index refresh to helm.");
+						complete = false;
+					} else {
+						entries.add(entry);
+					}
+				}
+				Files.createDirectories(repositoryCache);
+
+				new ParallelExecutor(parallelism).execute(entries, this::fetchIndex);
+				log.info("Refreshed indexes of " + entries.size() + " repositories");
+				return complete;
+			});
+		} catch (IOException e) {
+			throw new MojoExecutionException("Unable to read " + repositoryConfig, e);
+		}
+	}
+
+	private RepositoriesFile read() throws IOException {
+		if (!Files.isRegularFile(repositoryConfig) || Files.size(repositoryConfig) == 0) {
+			RepositoriesFile file = new RepositoriesFile();
+			file.setGenerated(OffsetDateTime.now(ZoneOffset.UTC).format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
+			return file;
+		}
+		RepositoriesFile file = MAPPER.readValue(repositoryConfig.toFile(), RepositoriesFile.class);
+		if (file.getRepositories() == null) {
+			file.setRepositories(new ArrayList<>());
+		}
+		return file;
+	}
+
+	private void write(RepositoriesFile file) throws IOException {
+		Path temp = Files.createTempFile(repositoryConfig.toAbsolutePath().getParent(), fileName(), ".tmp");
+		try {
+			// file contains passwords, restrict to owner like helm does
+			if (Files.getFileAttributeView(temp, PosixFileAttributeView.class) != null) {
+				Files.setPosixFilePermissions(temp, PosixFilePermissions.fromString("rw-------"));
+			}
+			try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+				MAPPER.writeValue(writer, file);
+			}
+			Files.move(temp, repositoryConfig, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	/**
+	 * Fetch index like "helm repo add": index is stored as "[name]-index.yaml" and chart names as "[name]-charts.txt"
+	 * in repository cache. Validators for conditional requests are kept in "[name]-index.meta.json" and a binary
+	 * index for lookups in "[name]-index.bin".
+	 */
+	private void fetchIndex(RepositoriesFile.Entry entry) throws MojoExecutionException {
+
+		String name = entry.getName();
+		Path index = repositoryCache.resolve(name + "-index.yaml");
+		Path charts = repositoryCache.resolve(name + "-charts.txt");
+		Path metadata = repositoryCache.resolve(name + "-index.meta.json");
+		if (offline && !Files.isRegularFile(index)) {
+			throw new MojoExecutionException("Index of repo " + name + " (" + entry.getUrl()
+					+ ") is not cached in " + repositoryCache + " and Maven is offline.");
+		}
+		try {
+			if (offline) {
+				log.debug("Use cached index of repo " + name + ", Maven is offline");
+				if (!Files.isRegularFile(charts)) {
+					writeCharts(charts, openIndex(name).getCharts());
+				}
+				return;
+			}
+			URL url = new URL(entry.getUrl().replaceAll("/+$", "") + "/index.yaml");
+			log.debug("Fetching index of repo " + name + " from " + url);
+			HttpDownloader downloader = new HttpDownloader(log, u -> authenticate(connectionFactory.open(u), entry));
+			if (!downloader.downloadIfModified(url, index, metadata) && Files.isRegularFile(charts)) {
+				log.debug("Index of repo " + name + " not modified");
+				return;
+			}
+			try {
+				writeCharts(charts, openIndex(name).getCharts());
+			} catch (IOException e) {
+				// do not revalidate an invalid index
+				Files.deleteIfExists(index);
+				Files.deleteIfExists(metadata);
+				throw e;
+			}
+		} catch (IOException e) {
+			throw new MojoExecutionException("looks like \"" + entry.getUrl() + "\" is not a valid chart repository "
+					+ "or cannot be reached: " + e.getMessage(), e);
+		}
+	}
+
+	/** Replace chart names atomically, so concurrent readers never see a partial file. */
+	private void writeCharts(Path charts, List<String> names) throws IOException {
+		Path temp = Files.createTempFile(repositoryCache, charts.getFileName().toString(), ".tmp");
+		try {
+			Files.write(temp, names, StandardCharsets.UTF_8);
+			Files.move(temp, charts, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	/**
+	 * Open binary index of cached repository index, see {@link ChartIndex}.
+	 *
+	 * @param name repository name
+	 * @return Binary index.
+	 * @throws IOException Index is not cached or invalid.
+	 */
+	public ChartIndex openIndex(String name) throws IOException {
+		Path index = repositoryCache.resolve(name + "-index.yaml");
+		return ChartIndex.open(index, repositoryCache.resolve(name + "-index.bin"));
+	}
+
+	private URLConnection authenticate(URLConnection connection, RepositoriesFile.Entry entry) {
+		if (!entry.getUsername().isEmpty()) {
+			String credentials = entry.getUsername() + ":" + entry.getPassword();
+			connection.setRequestProperty("Authorization",
+					"Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8)));
+		}
+		return connection;
+	}
+
+	/**
+	 * Lock file next to the repository config. Only serializes modules of this plugin: a java file lock does not
+	 * exclude the flock of helm, even if both use the same file name.
+	 */
+	private Path lockFile() {
+		return repositoryConfig.resolveSibling(fileName().replaceFirst("\\.ya?ml$", "") + ".lock");
+	}
+
+	private String fileName() {
+		return repositoryConfig.getFileName().toString();
+	}
+
+	@Value
+	private static class Request {
+		RepositoriesFile.Entry entry;
+		boolean forceUpdate;
+	}
+}
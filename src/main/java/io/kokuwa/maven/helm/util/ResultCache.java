@@ -0,0 +1,184 @@
+package io.kokuwa.maven.helm.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.kokuwa.maven.helm.pojo.HelmResult;
+import lombok.Data;
+import lombok.Setter;
+
+/**
+ * On-disk cache for results of helm commands, keyed by a fingerprint of everything influencing the result. Entries
+ * not replayed within a maximum age are removed when new results are stored.
+ *
+ * @since 6.18.0
+ */
+public class ResultCache {
+
+	private static final ObjectMapper MAPPER = new ObjectMapper().findAndRegisterModules();
+	private static final String RESULT_FILE = "result.json";
+	private static final String STDOUT_FILE = "stdout";
+	private static final String STDERR_FILE = "stderr";
+
+	private final Log log;
+	private final Path directory;
+
+	/** Entries not replayed for longer are removed, <code>null</code> to keep entries forever. */
+	@Setter
+	private Duration maxAge = Duration.ofDays(30);
+
+	/**
+	 * Constructor for setting constants
+	 *
+	 * @param log       used to replay output
+	 * @param directory root directory of cache
+	 */
+	public ResultCache(Log log, Path directory) {
+		this.log = log;
+		this.directory = directory;
+	}
+
+	/**
+	 * Replay cached output and outcome.
+	 *
+	 * @param key          fingerprint of command
+	 * @param errorMessage Error message if cached exit code is not zero.
+	 * @return <code>true</code> if result was found in cache
+	 * @throws MojoExecutionException Cached exit code is not zero.
+	 */
+	public boolean replay(String key, String errorMessage) throws MojoExecutionException {
+
+		Path entry = directory.resolve(key);
+		Path resultFile = entry.resolve(RESULT_FILE);
+		if (!Files.isRegularFile(resultFile)) {
+			log.debug("No cached result found at " + entry);
+			return false;
+		}
+
+		Result result;
+		try {
+			result = MAPPER.readValue(resultFile.toFile(), Result.class);
+			replay(entry.resolve(STDOUT_FILE), log::info);
+			replay(entry.resolve(STDERR_FILE), log::error);
+		} catch (IOException e) {
+			log.warn("Failed to read cached result from " + entry + ", execute helm", e);
+			return false;
+		}
+
+		try {
+			// last modified marks last use for eviction
+			Files.setLastModifiedTime(resultFile, FileTime.from(Instant.now()));
+		} catch (IOException e) {
+			log.debug("Failed to mark " + entry + " as used", e);
+		}
+
+		log.info("Replayed cached result from " + result.getTimestamp() + " of: " + result.getCommand());
+		if (result.getExitCode() != 0) {
+			throw new MojoExecutionException(errorMessage);
+		}
+		return true;
+	}
+
+	/**
+	 * Store output and outcome of a helm command.
+	 *
+	 * @param key    fingerprint of command
+	 * @param result result of helm command
+	 */
+	public void store(String key, HelmResult result) {
+		Path entry = directory.resolve(key);
+		Path temporary = null;
+		try {
+			Files.createDirectories(directory);
+			if (maxAge != null) {
+				evict();
+			}
+			temporary = Files.createTempDirectory(directory, key + ".tmp-");
+			try (InputStream stdout = result.openStdout(); InputStream stderr = result.openStderr()) {
+				Files.copy(stdout, temporary.resolve(STDOUT_FILE), StandardCopyOption.REPLACE_EXISTING);
+				Files.copy(stderr, temporary.resolve(STDERR_FILE), StandardCopyOption.REPLACE_EXISTING);
+			}
+			MAPPER.writeValue(temporary.resolve(RESULT_FILE).toFile(), new Result()
+					.setCommand(result.getCommand())
+					.setExitCode(result.getExitCode())
+					.setTimestamp(Instant.now()));
+			delete(entry);
+			Files.move(temporary, entry, StandardCopyOption.ATOMIC_MOVE);
+			log.debug("Stored result in cache at " + entry);
+		} catch (IOException e) {
+			log.warn("Failed to store result in cache at " + entry, e);
+			if (temporary != null) {
+				try {
+					delete(temporary);
+				} catch (IOException ex) {
+					log.debug("Failed to cleanup " + temporary, ex);
+				}
+			}
+		}
+	}
+
+	/** Remove entries and leftover temporary directories not used within max age. */
+	private void evict() throws IOException {
+		Instant expired = Instant.now().minus(maxAge);
+		try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+			for (Path entry : entries) {
+				Path resultFile = entry.resolve(RESULT_FILE);
+				try {
+					Path marker = Files.isRegularFile(resultFile) ? resultFile : entry;
+					if (Files.getLastModifiedTime(marker).toInstant().isBefore(expired)) {
+						log.debug("Remove expired result from cache at " + entry);
+						delete(entry);
+					}
+				} catch (IOException e) {
+					// removed or replayed concurrently
+					log.debug("Failed to remove expired result from cache at " + entry, e);
+				}
+			}
+		}
+	}
+
+	private void replay(Path file, Consumer<String> consumer) throws IOException {
+		try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				consumer.accept(line);
+			}
+		}
+	}
+
+	private void delete(Path path) throws IOException {
+		if (Files.exists(path)) {
+			try (Stream<Path> paths = Files.walk(path)) {
+				for (Path file : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+					Files.delete(file);
+				}
+			}
+		}
+	}
+
+	/** Pojo for cached result metadata. */
+	@Data
+	public static class Result {
+
+		private String command;
+		private int exitCode;
+		private Instant timestamp;
+	}
+}
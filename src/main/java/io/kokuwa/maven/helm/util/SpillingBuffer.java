@@ -0,0 +1,149 @@
+package io.kokuwa.maven.helm.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Output buffer that keeps up to a threshold of bytes in memory and spills everything to a temporary file beyond. The
+ * buffer has to be closed to delete the temporary file.
+ *
+ * @since 6.18.0
+ */
+public class SpillingBuffer extends OutputStream {
+
+	/** Default bytes kept in memory per buffer. */
+	public static final int DEFAULT_THRESHOLD = 1024 * 1024;
+
+	private final int threshold;
+	private ByteArrayOutputStream memory = new ByteArrayOutputStream();
+	private Path file;
+	private OutputStream fileOutput;
+	private long size;
+
+	public SpillingBuffer() {
+		this(DEFAULT_THRESHOLD);
+	}
+
+	/**
+	 * Constructor for setting constants
+	 *
+	 * @param threshold bytes to keep in memory before spilling to disk
+	 */
+	public SpillingBuffer(int threshold) {
+		this.threshold = threshold;
+	}
+
+	@Override
+	public synchronized void write(int b) throws IOException {
+		write(new byte[] { (byte) b }, 0, 1);
+	}
+
+	@Override
+	public synchronized void write(byte[] bytes, int offset, int length) throws IOException {
+		if (file == null && memory.size() + length > threshold) {
+			file = Files.createTempFile("helm-", ".out");
+			fileOutput = Files.newOutputStream(file);
+			memory.writeTo(fileOutput);
+			memory = null;
+		}
+		if (file == null) {
+			memory.write(bytes, offset, length);
+		} else {
+			fileOutput.write(bytes, offset, length);
+		}
+		size += length;
+	}
+
+	@Override
+	public synchronized void flush() throws IOException {
+		if (fileOutput != null) {
+			fileOutput.flush();
+		}
+	}
+
+	/** @return Number of bytes written. */
+	public synchronized long size() {
+		return size;
+	}
+
+	/** @return <code>true</code> if content was spilled to disk. */
+	public synchronized boolean isSpilled() {
+		return file != null;
+	}
+
+	/**
+	 * Open a stream with the buffered content.
+	 *
+	 * @return Stream with buffered content.
+	 * @throws IOException Unable to read spilled file.
+	 */
+	public synchronized InputStream openStream() throws IOException {
+		if (file == null) {
+			return new ByteArrayInputStream(memory.toByteArray());
+		}
+		fileOutput.flush();
+		return Files.newInputStream(file);
+	}
+
+	/**
+	 * Get the last bytes of this buffer as string, useful for error messages of huge outputs.
+	 *
+	 * @param maxBytes maximum number of bytes to return
+	 * @param charset  charset for decoding
+	 * @return Last bytes of buffer.
+	 */
+	public synchronized String tail(int maxBytes, Charset charset) {
+		try {
+			if (file == null) {
+				byte[] bytes = memory.toByteArray();
+				int offset = Math.max(0, bytes.length - maxBytes);
+				return new String(bytes, offset, bytes.length - offset, charset);
+			}
+			fileOutput.flush();
+			try (RandomAccessFile random = new RandomAccessFile(file.toFile(), "r")) {
+				long offset = Math.max(0, random.length() - maxBytes);
+				byte[] bytes = new byte[(int) (random.length() - offset)];
+				random.seek(offset);
+				random.readFully(bytes);
+				return new String(bytes, charset);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Get the complete content as string. Prefer {@link #openStream()} for huge content.
+	 *
+	 * @param charset charset for decoding
+	 * @return Buffered content.
+	 */
+	public synchronized String toString(Charset charset) {
+		if (file == null) {
+			return new String(memory.toByteArray(), charset);
+		}
+		try {
+			fileOutput.flush();
+			return new String(Files.readAllBytes(file), charset);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/** Deletes spilled file, if any. */
+	@Override
+	public synchronized void close() throws IOException {
+		if (file != null) {
+			fileOutput.close();
+			Files.deleteIfExists(file);
+		}
+	}
+}
@@ -2,6 +2,7 @@ package io.kokuwa.maven.helm;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.io.ByteArrayInputStream;
@@ -12,13 +13,17 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Function;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.apache.commons.lang3.SystemUtils;
+import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.plugin.logging.SystemStreamLog;
 import org.apache.maven.settings.Server;
@@ -28,10 +33,14 @@ import org.junit.jupiter.api.TestMethodOrder;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatchers;
-import org.mockito.MockedStatic;
+import org.mockito.MockedConstruction;
 import org.mockito.Mockito;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import io.kokuwa.maven.helm.junit.MojoExtension;
+import io.kokuwa.maven.helm.pojo.PackageManifest;
+import io.kokuwa.maven.helm.util.Fingerprint;
 
 @TestMethodOrder(MethodOrderer.DisplayName.class)
 @ExtendWith(MojoExtension.class)
@@ -49,10 +58,40 @@ public abstract class AbstractMojoTest {
 	@BeforeEach
 	void reset(InitMojo mojo) throws IOException {
 		Files.deleteIfExists(mojo.getOutputDirectory().resolve("app-0.1.0.tgz"));
+		Files.deleteIfExists(mojo.getOutputDirectory().resolve(AbstractHelmMojo.PACKAGE_MANIFEST));
 		Authenticator.setDefault(null);
 	}
 
 	static void assertHelm(AbstractChartDirectoryMojo mojo, String... commands) {
+		Process process = mockProcess(0);
+		executeHelm(mojo, command -> process, true, commands);
+	}
+
+	/** Assert successful execution with a process per command, e.g. to let single commands fail. */
+	static void assertHelm(AbstractChartDirectoryMojo mojo, Function<List<String>, Process> processes,
+			String... commands) {
+		executeHelm(mojo, processes, true, commands);
+	}
+
+	static MojoExecutionException assertHelmFails(AbstractChartDirectoryMojo mojo, Process process,
+			String... commands) {
+		return assertInstanceOf(MojoExecutionException.class, executeHelm(mojo, command -> process, false, commands));
+	}
+
+	/** Process that finishes in time with given exit code and without output. */
+	static Process mockProcess(int exitCode) {
+		Process process = Mockito.mock(Process.class);
+		Mockito.doReturn(new ByteArrayInputStream(new byte[0])).when(process).getInputStream();
+		Mockito.doReturn(new ByteArrayInputStream(new byte[0])).when(process).getErrorStream();
+		Mockito.doReturn(new ByteArrayOutputStream()).when(process).getOutputStream();
+		assertDoesNotThrow(() -> Mockito.doReturn(exitCode).when(process).waitFor());
+		assertDoesNotThrow(() -> Mockito.doReturn(true).when(process).waitFor(ArgumentMatchers.anyLong(),
+				ArgumentMatchers.any()));
+		return process;
+	}
+
+	private static Exception executeHelm(AbstractChartDirectoryMojo mojo,
+			Function<List<String>, Process> processes, boolean success, String... commands) {
 
 		// setup log
 
@@ -71,25 +110,26 @@ public abstract class AbstractMojoTest {
 		Mockito.doNothing().when(log).warn(messages.capture(), ArgumentMatchers.any(Throwable.class));
 		Mockito.doNothing().when(log).error(messages.capture(), ArgumentMatchers.any(Throwable.class));
 
-		// setup runtime
-
-		ArgumentCaptor<String[]> actualCommands = ArgumentCaptor.forClass(String[].class);
-		Runtime runtime = Mockito.mock(Runtime.class);
-		Process process = Mockito.mock(Process.class);
-		Mockito.doReturn(new ByteArrayInputStream(new byte[0])).when(process).getInputStream();
-		Mockito.doReturn(new ByteArrayInputStream(new byte[0])).when(process).getErrorStream();
-		Mockito.doReturn(new ByteArrayOutputStream()).when(process).getOutputStream();
-		assertDoesNotThrow(() -> Mockito.doReturn(process).when(runtime).exec(actualCommands.capture()));
-		assertDoesNotThrow(() -> Mockito.doReturn(0).when(process).waitFor());
-
 		// execute mojo
 
-		try (MockedStatic<Runtime> mockedRuntime = Mockito.mockStatic(Runtime.class)) {
-			mockedRuntime.when(Runtime::getRuntime).thenReturn(runtime);
+		List<String[]> actualCommands = new ArrayList<>();
+		Exception exception = null;
+		try (MockedConstruction<ProcessBuilder> mockedProcessBuilder = Mockito.mockConstruction(ProcessBuilder.class,
+				(builder, context) -> {
+					String[] command = (String[]) context.arguments().get(0);
+					actualCommands.add(command);
+					Mockito.doReturn(processes.apply(Arrays.asList(command))).when(builder).start();
+				})) {
 			mojo.setLog(log);
 			mojo.execute();
 		} catch (Exception e) {
-			fail("Failed to execute mojo", e);
+			exception = e;
+		}
+		if (success && exception != null) {
+			fail("Failed to execute mojo", exception);
+		}
+		if (!success && exception == null) {
+			fail("Mojo did not fail");
 		}
 
 		// check logs for secrets and passwords
@@ -102,7 +142,7 @@ public abstract class AbstractMojoTest {
 
 		// check commands
 
-		List<String> actual = actualCommands.getAllValues().stream()
+		List<String> actual = actualCommands.stream()
 				.map(command -> Stream.of(command)
 						// remove helm executable as first entry
 						.skip(1)
@@ -116,6 +156,7 @@ public abstract class AbstractMojoTest {
 				.map(part -> part.replaceAll(Pattern.quote("\\"), "/"))
 				.collect(Collectors.toList());
 		assertEquals(expected, actual, "commands differ");
+		return exception;
 	}
 
 	static Server getServer(String id, String username, String password) {
@@ -131,6 +172,15 @@ public abstract class AbstractMojoTest {
 		Path target = mojo.getOutputDirectory().resolve("app-0.1.0.tgz");
 		assertDoesNotThrow(() -> Files.createDirectories(target.getParent()));
 		assertDoesNotThrow(() -> Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING));
+		PackageManifest manifest = new PackageManifest();
+		manifest.getArchives().add(new PackageManifest.Archive()
+				.setPath(target.getFileName().toString())
+				.setSha256(assertDoesNotThrow(() -> Fingerprint.digest(target)))
+				.setSize(assertDoesNotThrow(() -> Files.size(target)))
+				.setName("app")
+				.setVersion("0.1.0"));
+		Path manifestFile = mojo.getOutputDirectory().resolve(AbstractHelmMojo.PACKAGE_MANIFEST);
+		assertDoesNotThrow(() -> new ObjectMapper().writeValue(manifestFile.toFile(), manifest));
 		return target;
 	}
 }
@@ -4,14 +4,25 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import org.apache.maven.plugin.MojoExecutionException;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.junit5.WireMockExtension;
 
 @DisplayName("helm:dependency-build")
 public class DependencyBuildMojoTest extends AbstractMojoTest {
 
+	@RegisterExtension
+	static WireMockExtension mock = WireMockExtension.newInstance().failOnUnmatchedRequests(true).build();
+
 	@DisplayName("default values")
 	@Test
 	void DependencyBuild(DependencyBuildMojo mojo) {
@@ -65,4 +76,39 @@ public class DependencyBuildMojoTest extends AbstractMojoTest {
 		assertHelm(mojo.setSkipDependencyBuildRepoRefresh(true),
 				"dependency build src/test/resources/simple --skip-refresh");
 	}
+
+	@DisplayName("with maven offline")
+	@Test
+	void offline(DependencyBuildMojo mojo) {
+		mojo.getSettings().setOffline(true);
+		assertHelm(mojo, "dependency build src/test/resources/simple --skip-refresh");
+	}
+
+	@DisplayName("with repository prefetch")
+	@Test
+	void repositoryPrefetch(DependencyBuildMojo mojo) throws IOException {
+
+		mock.stubFor(WireMock.get("/repo/index.yaml")
+				.willReturn(WireMock.ok("apiVersion: v1\nentries: {}").withHeader("ETag", "\"1\"")));
+		mock.stubFor(WireMock.get("/repo/index.yaml")
+				.withHeader("If-None-Match", WireMock.equalTo("\"1\""))
+				.willReturn(WireMock.aResponse().withStatus(304)));
+
+		Path directory = Files.createTempDirectory("helm-maven-plugin-test");
+		Path config = directory.resolve("repositories.yaml");
+		Path cache = directory.resolve("cache");
+		Files.write(config, ("repositories:\n- name: example\n  url: " + mock.baseUrl() + "/repo\n")
+				.getBytes(StandardCharsets.UTF_8));
+		mojo.setRepositoryPrefetch(true);
+		mojo.setRepositoryConfig(config.toFile());
+		mojo.setRepositoryCache(cache.toFile());
+
+		String expected = "dependency build src/test/resources/simple"
+				+ " --repository-cache " + cache + " --repository-config " + config + " --skip-refresh";
+		assertHelm(mojo, expected);
+		assertTrue(Files.isRegularFile(cache.resolve("example-index.yaml")));
+		assertHelm(mojo, expected);
+		mock.verify(1, WireMock.getRequestedFor(WireMock.urlEqualTo("/repo/index.yaml"))
+				.withHeader("If-None-Match", WireMock.equalTo("\"1\"")));
+	}
 }
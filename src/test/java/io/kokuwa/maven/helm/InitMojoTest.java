@@ -2,6 +2,7 @@ package io.kokuwa.maven.helm;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -10,6 +11,7 @@ import java.io.IOException;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Collections;
 import java.util.List;
 
 import org.apache.maven.plugin.MojoExecutionException;
@@ -20,6 +22,7 @@ import org.junit.jupiter.api.condition.DisabledOnOs;
 import org.junit.jupiter.api.condition.OS;
 import org.junit.jupiter.api.extension.RegisterExtension;
 
+import com.github.tomakehurst.wiremock.client.WireMock;
 import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
 import com.github.tomakehurst.wiremock.http.RequestMethod;
 import com.github.tomakehurst.wiremock.junit5.WireMockExtension;
@@ -185,6 +188,69 @@ public class InitMojoTest extends AbstractMojoTest {
 		assertHelmExecuteable(mojo);
 	}
 
+	@DisplayName("executable: download with binary cache")
+	@Test
+	void downloadHelmWithBinaryCache(InitMojo mojo) {
+
+		Proxy proxy = new Proxy();
+		proxy.setId("test");
+		proxy.setActive(true);
+		proxy.setProtocol("http");
+		proxy.setHost("127.0.0.1");
+		proxy.setPort(mock.getPort());
+
+		mojo.setHelmVersion("3.12.0");
+		mojo.setUseLocalHelmBinary(false);
+		mojo.setBinaryCache(true);
+		mojo.setBinaryCacheDirectory(createTempDirectory());
+		mojo.getSettings().addProxy(proxy);
+
+		mojo.setHelmExecutableDirectory(createTempDirectory());
+		assertHelm(mojo, "repo add stable " + InitMojo.STABLE_HELM_REPO);
+		assertHelmExecuteable(mojo);
+		mojo.setHelmExecutableDirectory(createTempDirectory());
+		assertHelm(mojo, "repo add stable " + InitMojo.STABLE_HELM_REPO);
+		assertHelmExecuteable(mojo);
+
+		assertEquals(1, mock.findAll(RequestPatternBuilder.allRequests()).size(), "expected only one download");
+	}
+
+	@DisplayName("executable: download with verification")
+	@Test
+	void downloadHelmWithVerification(InitMojo mojo) {
+		mojo.setHelmExecutableDirectory(createTempDirectory());
+		mojo.setHelmVersion("3.12.0");
+		mojo.setUseLocalHelmBinary(false);
+		mojo.setDownloadVerification(true);
+		assertHelm(mojo, "repo add stable " + InitMojo.STABLE_HELM_REPO);
+		assertHelmExecuteable(mojo);
+	}
+
+	@DisplayName("executable: download with checksum mismatch")
+	@Test
+	void downloadHelmWithChecksumMismatch(InitMojo mojo) {
+		mojo.setHelmExecutableDirectory(createTempDirectory());
+		mojo.setHelmVersion("3.12.0");
+		mojo.setUseLocalHelmBinary(false);
+		mojo.setHelmDownloadChecksum(String.join("", Collections.nCopies(64, "0")));
+		String message = assertThrows(MojoExecutionException.class, mojo::execute).getMessage();
+		assertTrue(message.startsWith("Checksum mismatch for https://get.helm.sh/helm-v3.12.0-"), message);
+		assertFalse(Files.exists(mojo.getHelmExecutableDirectory().resolve(HELM)), "executable installed");
+	}
+
+	@DisplayName("executable: offline without cached executable")
+	@Test
+	void downloadHelmOffline(InitMojo mojo) {
+		mojo.setHelmExecutableDirectory(createTempDirectory());
+		mojo.setHelmVersion("3.12.0");
+		mojo.setUseLocalHelmBinary(false);
+		mojo.getSettings().setOffline(true);
+		String message = assertThrows(MojoExecutionException.class, mojo::execute).getMessage();
+		assertTrue(message.contains("is not installed or cached and Maven is offline, run once online to download "
+				+ "https://get.helm.sh/helm-v3.12.0-"), message);
+		assertFalse(Files.exists(mojo.getHelmExecutableDirectory().resolve(HELM)), "executable installed");
+	}
+
 	@DisplayName("executable: download with url")
 	@DisabledOnOs(OS.WINDOWS)
 	@Test
@@ -382,6 +448,26 @@ public class InitMojoTest extends AbstractMojoTest {
 				"repo add example https://example.org/repo/example --pass-credentials");
 	}
 
+	@DisplayName("repository: engine java")
+	@Test
+	void repositoryEngineJava(InitMojo mojo) throws IOException {
+		mock.stubFor(WireMock.get("/repo/example/index.yaml").willReturn(WireMock.ok("apiVersion: v1\nentries: {}")));
+		File directory = createTempDirectory();
+		mojo.setAddDefaultRepo(false);
+		mojo.setRepositoryAddEngine("java");
+		mojo.setRepositoryConfig(new File(directory, "repositories.yaml"));
+		mojo.setRepositoryCache(new File(directory, "cache"));
+		mojo.setHelmExtraRepos(new HelmRepository[] { new HelmRepository()
+				.setName("example")
+				.setUrl(mock.baseUrl() + "/repo/example") });
+		assertHelm(mojo);
+		assertHelm(mojo);
+		String repositories = new String(Files.readAllBytes(mojo.getRepositoryConfig().toPath()));
+		assertTrue(repositories.contains("url: " + mock.baseUrl() + "/repo/example"), repositories);
+		assertTrue(Files.isRegularFile(mojo.getRepositoryCache().toPath().resolve("example-index.yaml")));
+		assertEquals(1, mock.findAll(RequestPatternBuilder.allRequests()).size(), "expected only one index fetch");
+	}
+
 	private File createTempDirectory() {
 		return assertDoesNotThrow(() -> Files.createTempDirectory("helm-maven-plugin-test")).toFile();
 	}
@@ -1,6 +1,8 @@
 package io.kokuwa.maven.helm;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -45,6 +47,28 @@ public class LintMojoTest extends AbstractMojoTest {
 		assertHelm(mojo, "lint src/test/resources/simple --values values.yaml");
 	}
 
+	@DisplayName("with result cache")
+	@Test
+	void resultCache(LintMojo mojo) throws IOException {
+		mojo.setResultCache(true);
+		mojo.setResultCacheDirectory(Files.createTempDirectory("helm-results").toFile());
+		assertHelm(mojo, "lint src/test/resources/simple");
+		assertHelm(mojo);
+		mojo.setLintStrict(true);
+		assertHelm(mojo, "lint src/test/resources/simple --strict");
+	}
+
+	@DisplayName("with result cache and failure")
+	@Test
+	void resultCacheFailure(LintMojo mojo) throws IOException {
+		mojo.setResultCache(true);
+		mojo.setResultCacheDirectory(Files.createTempDirectory("helm-results").toFile());
+		assertHelmFails(mojo, mockProcess(1), "lint src/test/resources/simple");
+		assertHelmFails(mojo, mockProcess(1), "lint src/test/resources/simple");
+		assertHelm(mojo, "lint src/test/resources/simple");
+		assertHelm(mojo);
+	}
+
 	@DisplayName("with dependencies")
 	@Test
 	void dependencies(LintMojo mojo) {
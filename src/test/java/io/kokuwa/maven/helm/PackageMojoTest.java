@@ -1,13 +1,26 @@
 package io.kokuwa.maven.helm;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.when;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 
+import org.apache.maven.plugin.MojoExecutionException;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.kokuwa.maven.helm.pojo.PackageManifest;
+import io.kokuwa.maven.helm.util.Fingerprint;
+
 @DisplayName("helm:package")
 public class PackageMojoTest extends AbstractMojoTest {
 
@@ -78,6 +91,68 @@ public class PackageMojoTest extends AbstractMojoTest {
 				"package src/test/resources/simple --destination target/helm/repo --version 0.0.1-19961015-235612");
 	}
 
+	@DisplayName("with up to date archive")
+	@Test
+	void upToDate(PackageMojo mojo) throws IOException {
+		mojo.setOutputDirectory(Files.createTempDirectory("helm-package").toFile());
+		assertHelm(mojo, "package src/test/resources/simple --destination " + mojo.getOutputDirectory());
+		copyPackagedHelmChartToOutputdirectory(mojo);
+		assertHelm(mojo);
+		mojo.setAppVersion("0815");
+		assertHelm(mojo, "package src/test/resources/simple --destination " + mojo.getOutputDirectory()
+				+ " --app-version 0815");
+		assertHelm(mojo);
+		mojo.setPackageForce(true);
+		assertHelm(mojo, "package src/test/resources/simple --destination " + mojo.getOutputDirectory()
+				+ " --app-version 0815");
+	}
+
+	@DisplayName("with engine java")
+	@Test
+	void engineJava(PackageMojo mojo) throws IOException {
+		mojo.setOutputDirectory(Files.createTempDirectory("helm-package").toFile());
+		mojo.setPackageEngine("java");
+		mojo.setChartVersion("1.2.3");
+		assertHelm(mojo);
+		Path archive = mojo.getOutputDirectory().resolve("app-1.2.3.tgz");
+		assertTrue(Files.isRegularFile(archive));
+
+		PackageManifest manifest = new ObjectMapper().readValue(
+				mojo.getOutputDirectory().resolve(AbstractHelmMojo.PACKAGE_MANIFEST).toFile(), PackageManifest.class);
+		assertEquals(1, manifest.getArchives().size());
+		PackageManifest.Archive entry = manifest.getArchives().get(0);
+		assertEquals("app-1.2.3.tgz", entry.getPath());
+		assertEquals("app", entry.getName());
+		assertEquals("1.2.3", entry.getVersion());
+		assertEquals(Files.size(archive), entry.getSize());
+		assertEquals(Fingerprint.digest(archive), entry.getSha256());
+	}
+
+	@DisplayName("with engine java reproducible")
+	@Test
+	void engineJavaReproducible(PackageMojo mojo) throws IOException {
+		mojo.setPackageEngine("java");
+		mojo.setPackageReproducible(true);
+		mojo.setOutputTimestamp("2024-01-01T00:00:00Z");
+		mojo.setOutputDirectory(Files.createTempDirectory("helm-package").toFile());
+		assertHelm(mojo);
+		byte[] first = Files.readAllBytes(mojo.getOutputDirectory().resolve("app-0.1.0.tgz"));
+		mojo.setOutputDirectory(Files.createTempDirectory("helm-package").toFile());
+		assertHelm(mojo);
+		byte[] second = Files.readAllBytes(mojo.getOutputDirectory().resolve("app-0.1.0.tgz"));
+		assertArrayEquals(first, second);
+	}
+
+	@DisplayName("with engine java and keyring")
+	@Test
+	void engineJavaWithKeyring(PackageMojo mojo) {
+		mojo.setPackageEngine("java");
+		mojo.setKeyring("foo");
+		mojo.setKey("bar");
+		String message = assertThrows(MojoExecutionException.class, () -> mojo.execute()).getMessage();
+		assertEquals("Signing is not supported by package engine 'java', use 'helm'.", message);
+	}
+
 	@DisplayName("with keyring without password")
 	@Test
 	void keyringWithoutPassword(PackageMojo mojo) {
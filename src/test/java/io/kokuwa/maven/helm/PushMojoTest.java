@@ -1,11 +1,20 @@
 package io.kokuwa.maven.helm;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 
+import org.apache.maven.plugin.MojoExecutionException;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import io.kokuwa.maven.helm.junit.MojoExtension;
 import io.kokuwa.maven.helm.pojo.HelmRepository;
 
 @DisplayName("helm:push")
@@ -25,6 +34,53 @@ public class PushMojoTest extends AbstractMojoTest {
 		assertHelm(mojo.setSkipPush(true).setSkip(true));
 	}
 
+	@DisplayName("without package manifest")
+	@Test
+	void withoutManifest(PushMojo mojo) throws IOException {
+		Path packaged = copyPackagedHelmChartToOutputdirectory(mojo);
+		Files.delete(mojo.getOutputDirectory().resolve(AbstractHelmMojo.PACKAGE_MANIFEST));
+		mojo.setUploadRepoStable(new HelmRepository().setUrl("reg.example.org"));
+		String message = assertThrows(MojoExecutionException.class, () -> mojo.execute()).getMessage();
+		assertTrue(message.contains("set helm.outputDirectory.scan"), message);
+		mojo.setScanOutputDirectory(true);
+		assertHelm(mojo, "push " + packaged + " oci://reg.example.org");
+	}
+
+	@DisplayName("with archive modified after packaging")
+	@Test
+	void modifiedArchive(PushMojo mojo) throws IOException {
+		Path packaged = copyPackagedHelmChartToOutputdirectory(mojo);
+		Files.write(packaged, "modified".getBytes(StandardCharsets.UTF_8));
+		mojo.setUploadRepoStable(new HelmRepository().setUrl("reg.example.org"));
+		String message = assertThrows(MojoExecutionException.class, () -> mojo.execute()).getMessage();
+		assertEquals("Chart archive " + packaged + " is missing or was modified after packaging, "
+				+ "run helm:package again.", message);
+	}
+
+	@DisplayName("with helm version below 3.8.0")
+	@Test
+	void unsupportedHelmVersion(PushMojo mojo) {
+		copyPackagedHelmChartToOutputdirectory(mojo);
+		mojo.setUploadRepoStable(new HelmRepository().setUrl("reg.example.org"));
+		mojo.setHelmVersion("3.7.2");
+		assertThrows(IllegalStateException.class, () -> mojo.execute());
+	}
+
+	@DisplayName("with local helm binary that does not report version")
+	@Test
+	void localHelmWithoutVersion(PushMojo mojo) {
+		Path packaged = copyPackagedHelmChartToOutputdirectory(mojo);
+		mojo.setUploadRepoStable(new HelmRepository().setUrl("reg.example.org"));
+		mojo.setAutoDetectLocalHelmBinary(false);
+		mojo.setUseLocalHelmBinary(true);
+		mojo.setFallbackBinaryDownload(false);
+		mojo.setHelmVersion(null);
+		mojo.setHelmExecutableDirectory(MojoExtension.determineHelmExecutableDirectory().toFile());
+		assertHelm(mojo, command -> mockProcess(command.contains("version") ? 1 : 0),
+				"version --template {{.Version}}",
+				"push " + packaged + " oci://reg.example.org");
+	}
+
 	@DisplayName("with flag insecure")
 	@Test
 	void insecure(PushMojo mojo) {
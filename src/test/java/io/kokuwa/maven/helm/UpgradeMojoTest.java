@@ -2,12 +2,16 @@ package io.kokuwa.maven.helm;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.File;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.maven.plugin.MojoExecutionException;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
 
 import io.kokuwa.maven.helm.pojo.ValueOverride;
 
@@ -30,6 +34,37 @@ public class UpgradeMojoTest extends AbstractMojoTest {
 		assertHelm(mojo.setSkipUpgrade(true).setSkip(true));
 	}
 
+	@DisplayName("with execution timeout")
+	@Test
+	void executionTimeout(UpgradeMojo mojo) throws InterruptedException {
+		mojo.setSkipUpgrade(false);
+		mojo.setReleaseName("foo");
+		mojo.setExecutionTimeout(10);
+		Process process = mockProcess(0);
+		Mockito.doReturn(false).when(process).waitFor(ArgumentMatchers.anyLong(), ArgumentMatchers.any());
+		String message = assertHelmFails(mojo, process, "upgrade foo src/test/resources/simple --install")
+				.getMessage();
+		assertTrue(message.contains("timed out after 10s"), message);
+		Mockito.verify(process).waitFor(10_000L, TimeUnit.MILLISECONDS);
+		Mockito.verify(process).destroyForcibly();
+	}
+
+	@DisplayName("with execution timeout of goal")
+	@Test
+	void upgradeExecutionTimeout(UpgradeMojo mojo) throws InterruptedException {
+		mojo.setSkipUpgrade(false);
+		mojo.setReleaseName("foo");
+		mojo.setExecutionTimeout(10);
+		mojo.setUpgradeExecutionTimeout(20);
+		Process process = mockProcess(0);
+		Mockito.doReturn(false).when(process).waitFor(ArgumentMatchers.anyLong(), ArgumentMatchers.any());
+		String message = assertHelmFails(mojo, process, "upgrade foo src/test/resources/simple --install")
+				.getMessage();
+		assertTrue(message.contains("timed out after 20s"), message);
+		Mockito.verify(process).waitFor(20_000L, TimeUnit.MILLISECONDS);
+		Mockito.verify(process).destroyForcibly();
+	}
+
 	@DisplayName("with flag dry-run")
 	@Test
 	void dryRun(UpgradeMojo mojo) {
@@ -9,8 +9,12 @@ import static org.junit.jupiter.api.Assertions.fail;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.hc.core5.http.HttpHeaders;
 import org.apache.maven.plugin.MojoExecutionException;
@@ -21,6 +25,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
 import org.junit.jupiter.api.extension.RegisterExtension;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.tomakehurst.wiremock.client.WireMock;
 import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
 import com.github.tomakehurst.wiremock.http.RequestMethod;
@@ -51,10 +56,24 @@ public class UploadMojoTest extends AbstractMojoTest {
 				.setType(RepoType.CHARTMUSEUM)
 				.setName("my-chartmuseum")
 				.setUrl("http://127.0.0.1:" + mock.getPort() + "/chartmuseum"));
+		mojo.setScanOutputDirectory(true);
 		assertHelm(mojo);
 		assertTrue(mock.findAll(RequestPatternBuilder.allRequests()).isEmpty());
 	}
 
+	@DisplayName("without package manifest")
+	@Test
+	void withoutManifest(UploadMojo mojo) {
+		mojo.setUploadRepoStable(new HelmRepository()
+				.setType(RepoType.CHARTMUSEUM)
+				.setName("my-chartmuseum")
+				.setUrl("http://127.0.0.1:" + mock.getPort() + "/chartmuseum"));
+		String message = assertThrows(MojoExecutionException.class, mojo::execute).getMessage();
+		assertTrue(message.startsWith("No package manifest found at "), message);
+		assertTrue(message.contains("set helm.outputDirectory.scan"), message);
+		assertTrue(mock.findAll(RequestPatternBuilder.allRequests()).isEmpty());
+	}
+
 	@DisplayName("with flag skip")
 	@Test
 	void skip(UploadMojo mojo) {
@@ -164,6 +183,56 @@ public class UploadMojoTest extends AbstractMojoTest {
 		assertUpload(mojo, RequestMethod.PUT, "/nexus/" + packaged.getFileName(), null);
 	}
 
+	@DisplayName("nexus: parallel uploads with catalog")
+	@Test
+	@Order(1)
+	void uploadChartsInParallelAndCheckCatalogContainsAll(UploadMojo mojo) throws IOException {
+		mojo.getMavenProject().getBuild().setDirectory(Files.createTempDirectory("helm-upload").toString());
+		mojo.setOutputDirectory(Files.createTempDirectory("helm-upload").toFile());
+		mojo.setSkipCatalog(false);
+		mojo.setScanOutputDirectory(true);
+		mojo.setUploadParallelism("2");
+		mojo.setUploadRepoStable(new HelmRepository()
+				.setType(RepoType.NEXUS)
+				.setName("my-nexus")
+				.setUrl("http://127.0.0.1:" + mock.getPort() + "/nexus"));
+		Path first = copyPackagedHelmChartToOutputdirectory(mojo);
+		Path second = Files.copy(first, first.resolveSibling("other-0.1.0.tgz"));
+		mock.stubFor(WireMock.any(WireMock.anyUrl()).willReturn(WireMock.ok()));
+
+		assertDoesNotThrow(() -> mojo.execute(), "upload failed");
+		assertEquals(2, mock.findAll(RequestPatternBuilder.newRequestPattern(RequestMethod.PUT, WireMock.anyUrl()))
+				.size(), "expected two uploads");
+		List<String> charts = new ArrayList<>();
+		new ObjectMapper().readTree(mojo.getCatalogFilePath().toFile())
+				.forEach(entry -> charts.add(entry.get("chart").asText()));
+		assertEquals(Stream.of(first, second).map(p -> p.toUri().toString()).sorted().collect(Collectors.toList()),
+				charts.stream().sorted().collect(Collectors.toList()), "catalog entries");
+	}
+
+	@DisplayName("nexus: keep upload failure if catalog cannot be written")
+	@Test
+	void uploadFailureWithCatalogFailure(UploadMojo mojo) throws IOException {
+		Path buildDirectory = Files.createTempDirectory("helm-upload").resolve("missing");
+		mojo.getMavenProject().getBuild().setDirectory(buildDirectory.toString());
+		mojo.setOutputDirectory(Files.createTempDirectory("helm-upload").toFile());
+		mojo.setSkipCatalog(false);
+		mojo.setScanOutputDirectory(true);
+		mojo.setUploadRepoStable(new HelmRepository()
+				.setType(RepoType.NEXUS)
+				.setName("my-nexus")
+				.setUrl("http://127.0.0.1:" + mock.getPort() + "/nexus"));
+		Path first = copyPackagedHelmChartToOutputdirectory(mojo);
+		Path second = Files.copy(first, first.resolveSibling("other-0.1.0.tgz"));
+		mock.stubFor(WireMock.put("/nexus/" + first.getFileName()).willReturn(WireMock.ok()));
+		mock.stubFor(WireMock.put("/nexus/" + second.getFileName()).willReturn(WireMock.serverError()));
+
+		MojoExecutionException exception = assertThrows(MojoExecutionException.class, mojo::execute);
+		assertTrue(exception.getMessage().startsWith("Failed to upload"), "upload failure expected");
+		assertEquals(1, exception.getSuppressed().length, "catalog failure expected");
+		assertEquals("Failure occurred while writing the catalog file.", exception.getSuppressed()[0].getMessage());
+	}
+
 	@DisplayName("nexus: with username/password")
 	@Test
 	void urlNexusWithUsernameAndPassword(UploadMojo mojo) {
@@ -365,6 +434,20 @@ public class UploadMojoTest extends AbstractMojoTest {
 		assertUploadVerifySuccess(mojo, RequestMethod.PUT, "/nexus/" + packaged.getFileName());
 	}
 
+	@DisplayName("flag: with flag verify and version from Chart.yaml")
+	@Test
+	void verifyWithoutChartVersion(UploadMojo mojo) {
+		mojo.setUploadVerification(true);
+		mojo.setUploadVerificationTimeout(10);
+		mojo.setChartVersion(null);
+		mojo.setUploadRepoStable(new HelmRepository()
+				.setType(RepoType.NEXUS)
+				.setName("my-nexus")
+				.setUrl("http://127.0.0.1:" + mock.getPort() + "/nexus"));
+		Path packaged = copyPackagedHelmChartToOutputdirectory(mojo);
+		assertUploadVerifySuccess(mojo, RequestMethod.PUT, "/nexus/" + packaged.getFileName());
+	}
+
 	@DisplayName("flag: with flags verify and timeout")
 	@Test
 	void verifyAndTimeout(UploadMojo mojo) {
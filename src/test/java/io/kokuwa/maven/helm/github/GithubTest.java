@@ -0,0 +1,141 @@
+package io.kokuwa.maven.helm.github;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.junit5.WireMockExtension;
+
+@DisplayName("github")
+public class GithubTest {
+
+	@RegisterExtension
+	static WireMockExtension mock = WireMockExtension.newInstance().build();
+
+	@DisplayName("detect version ranges")
+	@Test
+	void isRange() {
+		assertTrue(Github.isRange("3.14.x"));
+		assertTrue(Github.isRange("3.*"));
+		assertTrue(Github.isRange("[3.13,3.15)"));
+		assertFalse(Github.isRange("3.14.2"));
+	}
+
+	@DisplayName("resolve version ranges from cached releases")
+	@Test
+	void resolveRange() throws IOException, MojoExecutionException {
+		Path tmpDir = Files.createTempDirectory("helm-github");
+		Files.write(tmpDir.resolve("github-releases.json"), ("{\"timestamp\":\"" + Instant.now() + "\",\"releases\":["
+				+ "{\"tag_name\":\"v3.15.0-rc.1\",\"prerelease\":true},"
+				+ "{\"tag_name\":\"v3.14.10\"},"
+				+ "{\"tag_name\":\"v3.14.9\"},"
+				+ "{\"tag_name\":\"v3.13.3\"},"
+				+ "{\"tag_name\":\"v2.17.0\"}]}").getBytes(StandardCharsets.UTF_8));
+		Github github = new Github(new SystemStreamLog(), tmpDir, "test", 1, true);
+		assertEquals("3.14.10", github.getHelmVersion("3.14.x"));
+		assertEquals("3.13.3", github.getHelmVersion("3.13.*"));
+		assertEquals("3.14.10", github.getHelmVersion("3.x"));
+		assertEquals("3.13.3", github.getHelmVersion("[3.13,3.14)"));
+		assertEquals("3.14.10", github.getHelmVersion("[3.13,3.15)"));
+		assertEquals("No helm release found for version 3.16.x",
+				assertThrows(MojoExecutionException.class, () -> github.getHelmVersion("3.16.x")).getMessage());
+	}
+
+	@DisplayName("fail offline without cache")
+	@Test
+	void offlineWithoutCache() throws IOException {
+		Path tmpDir = Files.createTempDirectory("helm-github");
+		Github github = new Github(new SystemStreamLog(), tmpDir, "test", 1, true);
+		String message = assertThrows(MojoExecutionException.class, () -> github.getHelmVersion("3.14.x")).getMessage();
+		assertTrue(message.endsWith("and Maven is offline, configure helm.version or run once online."), message);
+	}
+
+	@DisplayName("request latest release with token")
+	@Test
+	void latestWithToken() throws IOException, MojoExecutionException {
+		mock.stubFor(WireMock.get("/releases/latest")
+				.withHeader("Authorization", WireMock.equalTo("Bearer secret"))
+				.willReturn(WireMock.okJson("{\"tag_name\":\"v3.14.2\"}")
+						.withHeader("X-RateLimit-Limit", "5000")
+						.withHeader("X-RateLimit-Remaining", "4999")));
+		Path tmpDir = Files.createTempDirectory("helm-github");
+		Github github = new Github(new SystemStreamLog(), tmpDir, "test", 1, false)
+				.setApiUrl(mock.baseUrl())
+				.setToken("secret");
+		assertEquals("3.14.2", github.getHelmVersion());
+		assertTrue(Files.exists(tmpDir.resolve("github-release.json")), "cache not written");
+	}
+
+	@DisplayName("fail with rate limit without cache")
+	@Test
+	void rateLimited() throws IOException {
+		mock.stubFor(WireMock.get("/releases/latest").willReturn(WireMock.aResponse().withStatus(403)
+				.withHeader("X-RateLimit-Remaining", "0")
+				.withHeader("X-RateLimit-Reset", "0")));
+		Path tmpDir = Files.createTempDirectory("helm-github");
+		Github github = new Github(new SystemStreamLog(), tmpDir, "test", 1, false).setApiUrl(mock.baseUrl());
+		String message = assertThrows(MojoExecutionException.class, () -> github.getHelmVersion()).getMessage();
+		assertTrue(message.contains("rate limit exceeded"), message);
+		assertTrue(message.endsWith("configure helm.githubServerId to use a token"), message);
+	}
+
+	@DisplayName("resolved version is shared by state of one build")
+	@Test
+	void sharedState() throws IOException, MojoExecutionException {
+		mock.stubFor(WireMock.get("/releases/latest").willReturn(WireMock.okJson("{\"tag_name\":\"v3.14.2\"}")));
+		Path tmpDir = Files.createTempDirectory("helm-github");
+		Github.State state = new Github.State();
+		assertEquals("3.14.2", new Github(new SystemStreamLog(), tmpDir, "test", 0, false)
+				.setApiUrl(mock.baseUrl()).setState(state).getHelmVersion());
+		assertEquals("3.14.2", new Github(new SystemStreamLog(), tmpDir, "test", 0, false)
+				.setApiUrl(mock.baseUrl()).setState(state).getHelmVersion());
+		mock.verify(1, WireMock.getRequestedFor(WireMock.urlEqualTo("/releases/latest")));
+
+		// next build with new state requests Github again, cache is expired with zero validity
+		assertEquals("3.14.2", new Github(new SystemStreamLog(), tmpDir, "test", 0, false)
+				.setApiUrl(mock.baseUrl()).setState(new Github.State()).getHelmVersion());
+		mock.verify(2, WireMock.getRequestedFor(WireMock.urlEqualTo("/releases/latest")));
+	}
+
+	@DisplayName("refresh expired cache")
+	@Test
+	void refreshExpired() throws IOException, MojoExecutionException {
+		mock.stubFor(WireMock.get("/releases/latest").willReturn(WireMock.okJson("{\"tag_name\":\"v3.15.0\"}")));
+		Path tmpDir = Files.createTempDirectory("helm-github");
+		Path cache = tmpDir.resolve("github-release.json");
+		Files.write(cache, ("{\"timestamp\":\"" + Instant.now().minus(Duration.ofDays(2))
+				+ "\",\"response\":{\"tag_name\":\"v3.14.2\"}}").getBytes(StandardCharsets.UTF_8));
+		Github github = new Github(new SystemStreamLog(), tmpDir, "test", 1, false).setApiUrl(mock.baseUrl());
+		assertEquals("3.15.0", github.getHelmVersion());
+		assertTrue(new String(Files.readAllBytes(cache), StandardCharsets.UTF_8).contains("v3.15.0"), "not refreshed");
+	}
+
+	@DisplayName("use expired cache with rate limit")
+	@Test
+	void rateLimitedWithExpiredCache() throws IOException, MojoExecutionException {
+		mock.stubFor(WireMock.get("/releases/latest").willReturn(WireMock.aResponse().withStatus(403)
+				.withHeader("X-RateLimit-Remaining", "0")
+				.withHeader("X-RateLimit-Reset", "0")));
+		Path tmpDir = Files.createTempDirectory("helm-github");
+		Path cache = tmpDir.resolve("github-release.json");
+		Files.write(cache, ("{\"timestamp\":\"" + Instant.now().minus(Duration.ofDays(2))
+				+ "\",\"response\":{\"tag_name\":\"v3.14.2\"}}").getBytes(StandardCharsets.UTF_8));
+		Github github = new Github(new SystemStreamLog(), tmpDir, "test", 1, false).setApiUrl(mock.baseUrl());
+		assertEquals("3.14.2", github.getHelmVersion());
+	}
+}
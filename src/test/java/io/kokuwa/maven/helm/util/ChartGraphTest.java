@@ -0,0 +1,72 @@
+package io.kokuwa.maven.helm.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("util:chart-graph")
+public class ChartGraphTest {
+
+	@DisplayName("charts without dependencies keep order")
+	@Test
+	void independent() throws IOException, MojoExecutionException {
+		Path root = Files.createTempDirectory("helm-charts");
+		Path a = createChart(root.resolve("a"));
+		Path b = createChart(root.resolve("b"));
+		assertEquals(Arrays.asList(Arrays.asList(b, a)), levels(b, a));
+	}
+
+	@DisplayName("charts are processed after their file dependencies")
+	@Test
+	void dependencies() throws IOException, MojoExecutionException {
+		Path root = Files.createTempDirectory("helm-charts");
+		Path app = createChart(root.resolve("app"), "file://../lib", "https://example.org", "file://../missing");
+		Path lib = createChart(root.resolve("lib"), "file://../base");
+		Path base = createChart(root.resolve("base"));
+		Path other = createChart(root.resolve("other"));
+		assertEquals(Arrays.asList(Arrays.asList(base, other), Arrays.asList(lib), Arrays.asList(app)),
+				levels(app, lib, base, other));
+	}
+
+	@DisplayName("cyclic dependencies are reported")
+	@Test
+	void cycle() throws IOException {
+		Path root = Files.createTempDirectory("helm-charts");
+		Path a = createChart(root.resolve("a"), "file://../b");
+		Path b = createChart(root.resolve("b"), "file://../a");
+		Path c = createChart(root.resolve("c"));
+		String message = assertThrows(MojoExecutionException.class, () -> levels(c, a, b)).getMessage();
+		assertEquals("Charts have cyclic file:// dependencies: " + a + " -> " + b + " -> " + a, message);
+	}
+
+	private static List<List<Path>> levels(Path... chartDirectories) throws MojoExecutionException {
+		return new ChartGraph(new SystemStreamLog()).levels(Arrays.asList(chartDirectories));
+	}
+
+	private static Path createChart(Path directory, String... repositories) throws IOException {
+		StringBuilder chart = new StringBuilder("apiVersion: v2\nname: " + directory.getFileName() + "\n");
+		chart.append("version: 0.0.1\n");
+		if (repositories.length > 0) {
+			chart.append("dependencies:\n");
+			for (int i = 0; i < repositories.length; i++) {
+				chart.append("  - name: dependency").append(i).append("\n");
+				chart.append("    version: 0.0.1\n");
+				chart.append("    repository: ").append(repositories[i]).append("\n");
+			}
+		}
+		Files.createDirectories(directory);
+		Files.write(directory.resolve("Chart.yaml"), chart.toString().getBytes(StandardCharsets.UTF_8));
+		return directory;
+	}
+}
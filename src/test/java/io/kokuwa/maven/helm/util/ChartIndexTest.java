@@ -0,0 +1,90 @@
+package io.kokuwa.maven.helm.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("util:chart-index")
+public class ChartIndexTest {
+
+	private static final String INDEX = "apiVersion: v1\n"
+			+ "entries:\n"
+			+ "  app:\n"
+			+ "  - name: app\n"
+			+ "    version: 0.10.0\n"
+			+ "    digest: d10\n"
+			+ "    urls:\n"
+			+ "    - https://example.org/app-0.10.0.tgz\n"
+			+ "    - https://mirror.example.org/app-0.10.0.tgz\n"
+			+ "  - name: app\n"
+			+ "    version: 0.9.0\n"
+			+ "    digest: d9\n"
+			+ "    urls:\n"
+			+ "    - app-0.9.0.tgz\n"
+			+ "    maintainers:\n"
+			+ "    - name: someone\n"
+			+ "  - name: app\n"
+			+ "    version: 0.10.0-rc1\n"
+			+ "  another:\n"
+			+ "  - name: another\n"
+			+ "    version: 1.0.0\n"
+			+ "generated: \"2023-01-01T00:00:00Z\"\n";
+
+	@DisplayName("lookup charts and versions")
+	@Test
+	void lookup() throws IOException {
+		Path directory = Files.createTempDirectory("helm-index");
+		Path index = Files.write(directory.resolve("index.yaml"), INDEX.getBytes(StandardCharsets.UTF_8));
+		ChartIndex chartIndex = ChartIndex.open(index, directory.resolve("index.bin"));
+
+		assertEquals(Arrays.asList("another", "app"), chartIndex.getCharts());
+		assertEquals(Arrays.asList("0.9.0", "0.10.0-rc1", "0.10.0"), chartIndex.getVersions("app"));
+		assertEquals(Collections.emptyList(), chartIndex.getVersions("missing"));
+		assertEquals(Optional.of(new ChartIndex.ChartVersion("0.10.0", "d10", "https://example.org/app-0.10.0.tgz")),
+				chartIndex.find("app", "0.10.0"));
+		assertEquals(Optional.of(new ChartIndex.ChartVersion("0.10.0-rc1", null, null)),
+				chartIndex.find("app", "0.10.0-rc1"));
+		assertFalse(chartIndex.find("app", "0.11.0").isPresent());
+		assertFalse(chartIndex.find("missing", "0.10.0").isPresent());
+	}
+
+	@DisplayName("rebuild only if index was replaced")
+	@Test
+	void rebuild() throws IOException {
+		Path directory = Files.createTempDirectory("helm-index");
+		Path index = Files.write(directory.resolve("index.yaml"), INDEX.getBytes(StandardCharsets.UTF_8));
+		Path binary = directory.resolve("index.bin");
+
+		ChartIndex.open(index, binary);
+		FileTime built = FileTime.fromMillis(0);
+		Files.setLastModifiedTime(binary, built);
+		ChartIndex.open(index, binary);
+		assertEquals(built, Files.getLastModifiedTime(binary), "binary index was rebuilt");
+
+		Files.write(index, INDEX.replace("another", "third").getBytes(StandardCharsets.UTF_8));
+		Files.setLastModifiedTime(index, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+		assertEquals(Arrays.asList("app", "third"), ChartIndex.open(index, binary).getCharts());
+	}
+
+	@DisplayName("fail for invalid index")
+	@Test
+	void invalid() throws IOException {
+		Path directory = Files.createTempDirectory("helm-index");
+		Path index = Files.write(directory.resolve("index.yaml"), "entries: {}".getBytes(StandardCharsets.UTF_8));
+		String message = assertThrows(IOException.class, () -> ChartIndex.open(index, directory.resolve("index.bin")))
+				.getMessage();
+		assertEquals("no API version specified", message);
+	}
+}
@@ -0,0 +1,266 @@
+package io.kokuwa.maven.helm.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.apache.commons.compress.utils.IOUtils;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLMapper;
+
+@DisplayName("util:chart-packager")
+public class ChartPackagerTest {
+
+	private static final Path CHART = Paths.get("src/test/resources/helmignore");
+	private static final ObjectMapper YAML_MAPPER = new YAMLMapper();
+	private static final TypeReference<Map<String, Object>> MAP = new TypeReference<Map<String, Object>>() {};
+
+	@DisplayName("files are filtered by .helmignore and default rules")
+	@Test
+	void listFiles() throws IOException {
+		assertEquals(Arrays.asList("Chart.yaml", ".helmignore", "docs/README.md", "templates/configmap.yaml",
+				"values.yaml"), new ChartPackager().listFiles(CHART));
+	}
+
+	@DisplayName("version and appVersion are replaced in Chart.yaml")
+	@Test
+	void rewriteChartFile() {
+		String content = "apiVersion: v2\nname: app\nversion: 0.1.0\n";
+		assertEquals(content, ChartPackager.rewriteChartFile(content, null, null));
+		assertEquals("apiVersion: v2\nname: app\nversion: \"1.2.3\"\nappVersion: \"0815\"\n",
+				ChartPackager.rewriteChartFile(content, "1.2.3", "0815"));
+		assertEquals("version: \"2\"\nappVersion: \"3\"\n",
+				ChartPackager.rewriteChartFile("version: 1\nappVersion: 1\n", "2", "3"));
+
+		// only top level keys, including indented continuation of their value
+		assertEquals("dependencies:\n- name: a\n  version: 1\nversion: \"2\"\nname: app\n",
+				ChartPackager.rewriteChartFile("dependencies:\n- name: a\n  version: 1\nversion:\n  1\nname: app\n",
+						"2", null));
+	}
+
+	@DisplayName("dependencies of Chart.yaml must exist in charts/")
+	@Test
+	void missingDependency() throws IOException {
+		Path chart = Files.createTempDirectory("helm-chart");
+		Files.write(chart.resolve("Chart.yaml"),
+				"apiVersion: v2\nname: app\nversion: 1\ndependencies:\n- name: sub\n  version: 1\n".getBytes());
+		Path output = Files.createTempDirectory("helm-package");
+		IOException e = assertThrows(IOException.class, () -> new ChartPackager().pack(chart, output, null, null));
+		assertTrue(e.getMessage().endsWith(": sub"), e.getMessage());
+
+		Files.createDirectories(chart.resolve("charts/sub"));
+		Files.write(chart.resolve("charts/sub/Chart.yaml"), "apiVersion: v2\nname: sub\nversion: 1\n".getBytes());
+		assertTrue(Files.isRegularFile(new ChartPackager().pack(chart, output, null, null)));
+	}
+
+	@DisplayName("archive contains chart below chart name")
+	@Test
+	void pack() throws IOException {
+		Path output = Files.createTempDirectory("helm-package");
+		Path archive = new ChartPackager().pack(CHART, output, "1.2.3", "0815");
+		assertEquals(output.resolve("helmignore-1.2.3.tgz"), archive);
+		Map<String, byte[]> entries = read(archive);
+		assertEquals(Arrays.asList("helmignore/.helmignore", "helmignore/Chart.yaml", "helmignore/docs/README.md",
+				"helmignore/templates/configmap.yaml", "helmignore/values.yaml"), Arrays.asList(entries.keySet()
+						.toArray(new String[0])));
+		Map<?, ?> chart = YAML_MAPPER.readValue(entries.get("helmignore/Chart.yaml"), Map.class);
+		assertEquals("1.2.3", chart.get("version"));
+		assertEquals("0815", chart.get("appVersion"));
+		assertArrayEquals(Files.readAllBytes(CHART.resolve("values.yaml")), entries.get("helmignore/values.yaml"));
+	}
+
+	@DisplayName("archive is reproducible with timestamp")
+	@Test
+	void reproducible() throws IOException {
+		Instant timestamp = Instant.parse("2024-01-01T00:00:00Z");
+		ChartPackager packager = new ChartPackager().setTimestamp(timestamp);
+		Path first = packager.pack(CHART, Files.createTempDirectory("helm-package"), null, null);
+		Path second = packager.pack(CHART, Files.createTempDirectory("helm-package"), null, null);
+		assertArrayEquals(Files.readAllBytes(first), Files.readAllBytes(second));
+
+		// normalizing an archive created with another timestamp results in the same bytes
+		Path other = new ChartPackager().pack(CHART, Files.createTempDirectory("helm-package"), null, null);
+		packager.normalize(other);
+		assertArrayEquals(Files.readAllBytes(first), Files.readAllBytes(other));
+	}
+
+	@DisplayName("archive entries of dependencies fixture")
+	@Test
+	void packDependencies() throws IOException {
+		Path chart = Paths.get("src/test/resources/dependencies");
+		Instant timestamp = Instant.parse("2024-01-01T00:00:00Z");
+		Path archive = new ChartPackager().setTimestamp(timestamp)
+				.pack(chart, Files.createTempDirectory("helm-package"), "1.2.3", "0815");
+		assertEquals("app-1.2.3.tgz", archive.getFileName().toString());
+
+		// chart file first, entries are plain files owned by root as with helm package
+
+		List<TarArchiveEntry> headers = headers(archive);
+		assertEquals(Arrays.asList("app/Chart.yaml", "app/a1/Chart.yaml", "app/a2/Chart.yaml", "app/b/Chart.yaml"),
+				headers.stream().map(TarArchiveEntry::getName).collect(Collectors.toList()));
+		for (TarArchiveEntry header : headers) {
+			assertEquals(0100644, header.getMode(), "mode of " + header.getName());
+			assertEquals(0, header.getLongUserId(), "uid of " + header.getName());
+			assertEquals(0, header.getLongGroupId(), "gid of " + header.getName());
+			assertEquals(timestamp, header.getModTime().toInstant(), "modified of " + header.getName());
+		}
+
+		// only Chart.yaml of chart is rewritten, nested files are kept as is
+
+		Map<String, byte[]> entries = read(archive);
+		assertEquals("apiVersion: v1\nname: app\nversion: \"1.2.3\"\nappVersion: \"0815\"\n",
+				new String(entries.get("app/Chart.yaml"), StandardCharsets.UTF_8));
+		for (String subchart : Arrays.asList("a1", "a2", "b")) {
+			assertArrayEquals(Files.readAllBytes(chart.resolve(subchart).resolve("Chart.yaml")),
+					entries.get("app/" + subchart + "/Chart.yaml"), subchart);
+		}
+	}
+
+	@DisplayName("Chart.yaml of dependency-overwrite fixtures is rewritten in place")
+	@Test
+	void rewriteDependencyOverwrite() throws IOException {
+		List<Path> charts;
+		try (Stream<Path> files = Files.walk(Paths.get("src/test/resources/dependency-overwrite/to-overwrite"))) {
+			charts = files.filter(file -> file.endsWith("Chart.yaml")).sorted().collect(Collectors.toList());
+		}
+		assertFalse(charts.isEmpty(), "fixtures not found");
+		for (Path chart : charts) {
+			String content = new String(Files.readAllBytes(chart), StandardCharsets.UTF_8);
+			String rewritten = ChartPackager.rewriteChartFile(content, "1.2.3", "0815");
+
+			Map<String, Object> expected = YAML_MAPPER.readValue(content, MAP);
+			expected.put("version", "1.2.3");
+			expected.put("appVersion", "0815");
+			assertEquals(expected, YAML_MAPPER.readValue(rewritten, MAP), "values of " + chart);
+			assertEquals(withoutVersions(content), withoutVersions(rewritten), "comments and order of " + chart);
+		}
+	}
+
+	@DisplayName("dependency-overwrite fixture is packed with its subcharts")
+	@Test
+	void packDependencyOverwrite() throws IOException {
+		Path fixture = Paths.get("src/test/resources/dependency-overwrite/to-overwrite/multi/Chart.yaml");
+		Path chart = Files.createTempDirectory("helm-chart");
+		Files.copy(fixture, chart.resolve("Chart.yaml"));
+		Path output = Files.createTempDirectory("helm-package");
+		IOException e = assertThrows(IOException.class, () -> new ChartPackager().pack(chart, output, null, null));
+		assertTrue(e.getMessage().endsWith(": testDependency1, testDependency2, testDependency3, testDependency4"),
+				e.getMessage());
+
+		for (int i = 1; i <= 4; i++) {
+			Path subchart = Files.createDirectories(chart.resolve("charts/testDependency" + i));
+			Files.write(subchart.resolve("Chart.yaml"),
+					("apiVersion: v2\nname: testDependency" + i + "\nversion: 1\n").getBytes(StandardCharsets.UTF_8));
+		}
+		Path archive = new ChartPackager().pack(chart, output, "1.2.3", null);
+		assertEquals(Arrays.asList("app/Chart.yaml", "app/charts/testDependency1/Chart.yaml",
+				"app/charts/testDependency2/Chart.yaml", "app/charts/testDependency3/Chart.yaml",
+				"app/charts/testDependency4/Chart.yaml"),
+				headers(archive).stream().map(TarArchiveEntry::getName).collect(Collectors.toList()));
+		Map<String, Object> expected = YAML_MAPPER.readValue(fixture.toFile(), MAP);
+		expected.put("version", "1.2.3");
+		assertEquals(expected, YAML_MAPPER.readValue(read(archive).get("app/Chart.yaml"), MAP));
+	}
+
+	@DisplayName("archive is compatible with helm package")
+	@Test
+	@EnabledIf("hasHelmFromPath")
+	void compatibility() throws IOException, InterruptedException {
+		for (Path chart : Arrays.asList(CHART, Paths.get("src/test/resources/simple"))) {
+
+			Path expectedDirectory = Files.createTempDirectory("helm-package");
+			Process process = new ProcessBuilder(helmFromPath().toString(), "package", chart.toString(),
+					"--destination", expectedDirectory.toString(), "--version", "1.2.3", "--app-version", "0815")
+							.redirectErrorStream(true)
+							.start();
+			IOUtils.toByteArray(process.getInputStream());
+			assertEquals(0, process.waitFor(), "helm package failed");
+			Path actual = new ChartPackager().pack(chart, Files.createTempDirectory("helm-package"), "1.2.3", "0815");
+			Path expected = expectedDirectory.resolve(actual.getFileName());
+			assertTrue(Files.isRegularFile(expected), "helm created different archive name");
+
+			Map<String, byte[]> expectedEntries = read(expected);
+			Map<String, byte[]> actualEntries = read(actual);
+			assertEquals(expectedEntries.keySet(), actualEntries.keySet(), "entries of " + chart);
+			for (String name : expectedEntries.keySet()) {
+				if (name.endsWith("/Chart.yaml")) {
+					assertEquals(YAML_MAPPER.readValue(expectedEntries.get(name), Map.class),
+							YAML_MAPPER.readValue(actualEntries.get(name), Map.class), name);
+				} else {
+					assertEquals(new String(expectedEntries.get(name), StandardCharsets.UTF_8),
+							new String(actualEntries.get(name), StandardCharsets.UTF_8), name);
+				}
+			}
+		}
+	}
+
+	private static Map<String, byte[]> read(Path archive) throws IOException {
+		Map<String, byte[]> entries = new TreeMap<>();
+		try (InputStream file = Files.newInputStream(archive);
+				TarArchiveInputStream tar = new TarArchiveInputStream(new GzipCompressorInputStream(file))) {
+			TarArchiveEntry entry;
+			while ((entry = tar.getNextEntry()) != null) {
+				entries.put(entry.getName(), IOUtils.toByteArray(tar));
+			}
+		}
+		return entries;
+	}
+
+	private static List<TarArchiveEntry> headers(Path archive) throws IOException {
+		List<TarArchiveEntry> headers = new ArrayList<>();
+		try (InputStream file = Files.newInputStream(archive);
+				TarArchiveInputStream tar = new TarArchiveInputStream(new GzipCompressorInputStream(file))) {
+			TarArchiveEntry entry;
+			while ((entry = tar.getNextEntry()) != null) {
+				headers.add(entry);
+			}
+		}
+		return headers;
+	}
+
+	private static List<String> withoutVersions(String content) {
+		return Stream.of(content.split("\n"))
+				.filter(line -> !line.startsWith("version:") && !line.startsWith("appVersion:"))
+				.collect(Collectors.toList());
+	}
+
+	Path helmFromPath() {
+		String helm = System.getProperty("os.name").startsWith("Windows") ? "helm.exe" : "helm";
+		return Stream.of(System.getenv("PATH").split(Pattern.quote(File.pathSeparator)))
+				.map(path -> Paths.get(path).resolve(helm))
+				.filter(Files::isRegularFile)
+				.filter(Files::isExecutable)
+				.findFirst().orElse(null);
+	}
+
+	boolean hasHelmFromPath() {
+		return helmFromPath() != null;
+	}
+}
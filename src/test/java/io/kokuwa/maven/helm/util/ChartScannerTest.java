@@ -0,0 +1,82 @@
+package io.kokuwa.maven.helm.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+@DisplayName("util:chart-scanner")
+public class ChartScannerTest {
+
+	@DisplayName("result is cached until a directory changes")
+	@Test
+	void cache() throws IOException {
+
+		Path root = Files.createTempDirectory("helm-charts");
+		Path a = createChart(root.resolve("a"));
+		age(root);
+
+		List<Path> first = ChartScanner.scan(root, Collections.emptyList());
+		assertEquals(Arrays.asList(a), first);
+		assertSame(first, ChartScanner.scan(root, Collections.emptyList()));
+		assertNotSame(first, ChartScanner.scan(root, Arrays.asList("**/a")));
+		assertEquals(Arrays.asList(), ChartScanner.scan(root, Arrays.asList("**/a")));
+
+		Path b = createChart(root.resolve("b"));
+		assertEquals(Arrays.asList(b, a), ChartScanner.scan(root, Collections.emptyList()));
+	}
+
+	@DisplayName("recently modified directories are not cached")
+	@Test
+	void racy() throws IOException {
+		Path root = Files.createTempDirectory("helm-charts");
+		createChart(root.resolve("a"));
+		List<Path> first = ChartScanner.scan(root, Collections.emptyList());
+		assertNotSame(first, ChartScanner.scan(root, Collections.emptyList()));
+		assertEquals(first, ChartScanner.scan(root, Collections.emptyList()));
+	}
+
+	@DisplayName("subtrees without charts are skipped")
+	@Test
+	@DisabledOnOs(OS.WINDOWS)
+	void prune() throws IOException {
+		Path root = Files.createTempDirectory("helm-charts");
+		Path app = createChart(root.resolve("app"));
+		createChart(app.resolve("charts").resolve("dependency"));
+		createChart(root.resolve(".git").resolve("git"));
+		createChart(root.resolve("node_modules").resolve("npm"));
+		createChart(root.resolve("excluded").resolve("nested"));
+		Files.createSymbolicLink(app.resolve("loop"), root);
+		assertEquals(Arrays.asList(app), ChartScanner.scan(root, Arrays.asList("**/.git/**", "**/excluded/**")));
+	}
+
+	private static Path createChart(Path directory) throws IOException {
+		Files.createDirectories(directory);
+		Files.write(directory.resolve("Chart.yaml"), "name: test\n".getBytes());
+		return directory;
+	}
+
+	private static void age(Path root) throws IOException {
+		FileTime past = FileTime.from(Instant.now().minus(1, ChronoUnit.HOURS));
+		try (Stream<Path> paths = Files.walk(root)) {
+			for (Path path : (Iterable<Path>) paths::iterator) {
+				Files.setLastModifiedTime(path, past);
+			}
+		}
+	}
+}
@@ -0,0 +1,47 @@
+package io.kokuwa.maven.helm.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("util:file-mutex")
+public class FileMutexTest {
+
+	@DisplayName("second thread waits until mutex is released")
+	@Test
+	void exclusive() throws IOException, InterruptedException, ExecutionException, TimeoutException {
+		Path lockFile = Files.createTempDirectory("helm-lock").resolve("nested").resolve(".lock");
+		AtomicInteger counter = new AtomicInteger();
+		CompletableFuture<Integer> second;
+		FileMutex mutex = FileMutex.lock(lockFile);
+		try {
+			second = CompletableFuture.supplyAsync(() -> {
+				try {
+					return FileMutex.withLock(lockFile, counter::incrementAndGet);
+				} catch (IOException | MojoExecutionException e) {
+					throw new IllegalStateException(e);
+				}
+			});
+			Thread.sleep(200);
+			assertFalse(second.isDone(), "second thread acquired mutex");
+			counter.incrementAndGet();
+		} finally {
+			mutex.close();
+		}
+		assertEquals(2, second.get(10, TimeUnit.SECONDS));
+		assertTrue(Files.isRegularFile(lockFile));
+	}
+}
@@ -0,0 +1,173 @@
+package io.kokuwa.maven.helm.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.junit5.WireMockExtension;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+
+import io.kokuwa.maven.helm.pojo.CacheMetadata;
+
+@DisplayName("util:http-downloader")
+public class HttpDownloaderTest {
+
+	@RegisterExtension
+	static WireMockExtension mock = WireMockExtension.newInstance().build();
+
+	private final byte[] data = new byte[10_000];
+	private final HttpDownloader downloader = new HttpDownloader(new SystemStreamLog(), URL::openConnection)
+			.setRetryDelay(Duration.ofMillis(10));
+
+	HttpDownloaderTest() {
+		new Random(1).nextBytes(data);
+	}
+
+	@DisplayName("download complete file")
+	@Test
+	void download() throws IOException {
+		mock.stubFor(WireMock.get("/helm.tar.gz").willReturn(WireMock.ok().withBody(data)));
+		Path target = Files.createTempDirectory("helm-download").resolve("helm.part");
+		assertEquals(sha256(data), downloader.download(url("/helm.tar.gz"), target));
+		assertArrayEquals(data, Files.readAllBytes(target));
+	}
+
+	@DisplayName("resume partial file with range request")
+	@Test
+	void resume() throws IOException {
+		byte[] remaining = Arrays.copyOfRange(data, 4000, data.length);
+		mock.stubFor(WireMock.get("/helm.tar.gz")
+				.withHeader("Range", WireMock.equalTo("bytes=4000-"))
+				.willReturn(WireMock.aResponse().withStatus(206).withBody(remaining)));
+		Path target = Files.createTempDirectory("helm-download").resolve("helm.part");
+		Files.write(target, Arrays.copyOf(data, 4000));
+		assertEquals(sha256(data), downloader.download(url("/helm.tar.gz"), target));
+		assertArrayEquals(data, Files.readAllBytes(target));
+	}
+
+	@DisplayName("restart if server ignores range request")
+	@Test
+	void restart() throws IOException {
+		mock.stubFor(WireMock.get("/helm.tar.gz").willReturn(WireMock.ok().withBody(data)));
+		Path target = Files.createTempDirectory("helm-download").resolve("helm.part");
+		Files.write(target, new byte[4000]);
+		assertEquals(sha256(data), downloader.download(url("/helm.tar.gz"), target));
+		assertArrayEquals(data, Files.readAllBytes(target));
+	}
+
+	@DisplayName("restart if file changed since partial download")
+	@Test
+	void resumeChanged() throws IOException {
+		mock.stubFor(WireMock.get("/helm.tar.gz").willReturn(WireMock.ok().withBody(data)
+				.withHeader("ETag", "\"new\"")));
+		mock.stubFor(WireMock.get("/helm.tar.gz")
+				.withHeader("If-Range", WireMock.equalTo("\"new\""))
+				.willReturn(WireMock.aResponse().withStatus(206)
+						.withBody(Arrays.copyOfRange(data, 4000, data.length))));
+		Path target = Files.createTempDirectory("helm-download").resolve("helm.part");
+		Path validator = target.resolveSibling("helm.part.validator");
+		Files.write(target, new byte[4000]);
+		Files.write(validator, "\"old\"".getBytes());
+		assertEquals(sha256(data), downloader.download(url("/helm.tar.gz"), target));
+		assertArrayEquals(data, Files.readAllBytes(target));
+		assertFalse(Files.exists(validator));
+		mock.verify(WireMock.getRequestedFor(WireMock.urlEqualTo("/helm.tar.gz"))
+				.withHeader("Range", WireMock.equalTo("bytes=4000-"))
+				.withHeader("If-Range", WireMock.equalTo("\"old\"")));
+	}
+
+	@DisplayName("restart if server rejects range of complete partial file")
+	@Test
+	void rangeNotSatisfiable() throws IOException {
+		mock.stubFor(WireMock.get("/helm.tar.gz").willReturn(WireMock.ok().withBody(data)));
+		mock.stubFor(WireMock.get("/helm.tar.gz")
+				.withHeader("Range", WireMock.equalTo("bytes=" + data.length + "-"))
+				.willReturn(WireMock.aResponse().withStatus(416)));
+		Path target = Files.createTempDirectory("helm-download").resolve("helm.part");
+		Files.write(target, data);
+		assertEquals(sha256(data), downloader.download(url("/helm.tar.gz"), target));
+		assertArrayEquals(data, Files.readAllBytes(target));
+		mock.verify(2, WireMock.getRequestedFor(WireMock.urlEqualTo("/helm.tar.gz")));
+	}
+
+	@DisplayName("download only if modified")
+	@Test
+	void downloadIfModified() throws IOException {
+		mock.stubFor(WireMock.get("/index.yaml").willReturn(WireMock.ok().withBody(data)
+				.withHeader("ETag", "\"abc\"")
+				.withHeader("Last-Modified", "Mon, 02 Jan 2023 00:00:00 GMT")));
+		mock.stubFor(WireMock.get("/index.yaml")
+				.withHeader("If-None-Match", WireMock.equalTo("\"abc\""))
+				.withHeader("If-Modified-Since", WireMock.equalTo("Mon, 02 Jan 2023 00:00:00 GMT"))
+				.willReturn(WireMock.aResponse().withStatus(304)));
+		Path target = Files.createTempDirectory("helm-download").resolve("index.yaml");
+		CacheMetadata metadata = new CacheMetadata();
+
+		assertTrue(downloader.downloadIfModified(url("/index.yaml"), target, metadata));
+		assertArrayEquals(data, Files.readAllBytes(target));
+		assertEquals("\"abc\"", metadata.getEtag());
+		assertFalse(downloader.downloadIfModified(url("/index.yaml"), target, metadata));
+		assertArrayEquals(data, Files.readAllBytes(target));
+
+		// without file the request is unconditional
+		Files.delete(target);
+		assertTrue(downloader.downloadIfModified(url("/index.yaml"), target, metadata));
+		mock.verify(3, WireMock.getRequestedFor(WireMock.urlEqualTo("/index.yaml")));
+	}
+
+	@DisplayName("retry on server error")
+	@Test
+	void retry() throws IOException {
+		mock.stubFor(WireMock.get("/helm.tar.gz").inScenario("retry")
+				.whenScenarioStateIs(Scenario.STARTED).willSetStateTo("available")
+				.willReturn(WireMock.serviceUnavailable()));
+		mock.stubFor(WireMock.get("/helm.tar.gz").inScenario("retry")
+				.whenScenarioStateIs("available")
+				.willReturn(WireMock.ok().withBody(data)));
+		assertArrayEquals(data, downloader.fetch(url("/helm.tar.gz")));
+		mock.verify(2, WireMock.getRequestedFor(WireMock.urlEqualTo("/helm.tar.gz")));
+	}
+
+	@DisplayName("fail after retries")
+	@Test
+	void retriesExhausted() {
+		mock.stubFor(WireMock.get("/helm.tar.gz").willReturn(WireMock.serverError()));
+		downloader.setRetries(2);
+		assertThrows(IOException.class, () -> downloader.fetch(url("/helm.tar.gz")));
+		mock.verify(3, WireMock.getRequestedFor(WireMock.urlEqualTo("/helm.tar.gz")));
+	}
+
+	@DisplayName("no retry if not found")
+	@Test
+	void notFound() {
+		mock.stubFor(WireMock.get("/helm.tar.gz").willReturn(WireMock.notFound()));
+		assertThrows(IOException.class, () -> downloader.fetch(url("/helm.tar.gz")));
+		mock.verify(1, WireMock.getRequestedFor(WireMock.urlEqualTo("/helm.tar.gz")));
+	}
+
+	private URL url(String path) throws IOException {
+		return new URL(mock.baseUrl() + path);
+	}
+
+	private static String sha256(byte[] bytes) {
+		MessageDigest digest = Fingerprint.newDigest();
+		return Fingerprint.hex(digest.digest(bytes));
+	}
+}
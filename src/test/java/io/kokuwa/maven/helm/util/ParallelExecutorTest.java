@@ -0,0 +1,72 @@
+package io.kokuwa.maven.helm.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("util:parallel-executor")
+public class ParallelExecutorTest {
+
+	private final int cores = Runtime.getRuntime().availableProcessors();
+
+	@DisplayName("parse parallelism")
+	@Test
+	void parse() throws MojoExecutionException {
+		assertEquals(1, ParallelExecutor.parseParallelism(null));
+		assertEquals(1, ParallelExecutor.parseParallelism(""));
+		assertEquals(1, ParallelExecutor.parseParallelism("0"));
+		assertEquals(4, ParallelExecutor.parseParallelism("4"));
+		assertEquals(cores, ParallelExecutor.parseParallelism("cores"));
+		assertEquals(cores, ParallelExecutor.parseParallelism("1C"));
+		assertEquals(2 * cores, ParallelExecutor.parseParallelism("2C"));
+		assertThrows(MojoExecutionException.class, () -> ParallelExecutor.parseParallelism("many"));
+	}
+
+	@DisplayName("all items are executed")
+	@Test
+	void all() throws MojoExecutionException {
+		List<String> items = Arrays.asList("a", "b", "c", "d", "e");
+		Set<String> executed = ConcurrentHashMap.newKeySet();
+		new ParallelExecutor(3).execute(items, executed::add);
+		assertEquals(items.size(), executed.size());
+	}
+
+	@DisplayName("single failure is rethrown")
+	@Test
+	void singleFailure() {
+		List<String> items = Arrays.asList("a", "b", "c");
+		Set<String> executed = ConcurrentHashMap.newKeySet();
+		MojoExecutionException exception = assertThrows(MojoExecutionException.class,
+				() -> new ParallelExecutor(1).execute(items, item -> {
+					executed.add(item);
+					if (item.equals("a")) {
+						throw new MojoExecutionException("failed " + item);
+					}
+				}));
+		assertEquals("failed a", exception.getMessage());
+		assertEquals(items.size(), executed.size(), "failure should not stop other items");
+	}
+
+	@DisplayName("multiple failures are aggregated")
+	@Test
+	void multipleFailures() {
+		List<String> items = Arrays.asList("a", "b", "c");
+		MojoExecutionException exception = assertThrows(MojoExecutionException.class,
+				() -> new ParallelExecutor(2).execute(items, item -> {
+					if (!item.equals("b")) {
+						throw new MojoExecutionException("failed " + item);
+					}
+				}));
+		assertTrue(exception.getMessage().startsWith("2 of 3 failed:"), exception.getMessage());
+		assertEquals(2, exception.getSuppressed().length);
+	}
+}
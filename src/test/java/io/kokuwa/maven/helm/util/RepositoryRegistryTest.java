@@ -0,0 +1,143 @@
+package io.kokuwa.maven.helm.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.junit5.WireMockExtension;
+
+import io.kokuwa.maven.helm.pojo.RepositoriesFile;
+
+@DisplayName("util:repository-registry")
+public class RepositoryRegistryTest {
+
+	private static final String INDEX = "apiVersion: v1\n"
+			+ "entries:\n"
+			+ "  app:\n"
+			+ "  - name: app\n"
+			+ "    version: 0.1.0\n"
+			+ "  other:\n"
+			+ "  - name: other\n"
+			+ "    version: 1.0.0\n"
+			+ "generated: \"2023-01-01T00:00:00Z\"\n";
+
+	@RegisterExtension
+	static WireMockExtension mock = WireMockExtension.newInstance().build();
+
+	@DisplayName("add new repositories with one write")
+	@Test
+	void add() throws IOException, MojoExecutionException {
+		mock.stubFor(WireMock.get("/a/index.yaml").willReturn(WireMock.ok(INDEX)));
+		mock.stubFor(WireMock.get("/b/index.yaml")
+				.withBasicAuth("foo", "bar")
+				.willReturn(WireMock.ok(INDEX)));
+		Path directory = Files.createTempDirectory("helm-registry");
+		Path config = directory.resolve("repositories.yaml");
+		Path cache = directory.resolve("cache");
+
+		registry(config, cache)
+				.add(entry("a"), false)
+				.add(entry("b").setUsername("foo").setPassword("bar"), false)
+				.register();
+
+		String content = new String(Files.readAllBytes(config), StandardCharsets.UTF_8);
+		assertTrue(content.contains("name: a"), content);
+		assertTrue(content.contains("url: " + mock.baseUrl() + "/b"), content);
+		assertTrue(content.contains("username: foo"), content);
+		assertEquals(INDEX, new String(Files.readAllBytes(cache.resolve("a-index.yaml")), StandardCharsets.UTF_8));
+		assertEquals(Arrays.asList("app", "other"), Files.readAllLines(cache.resolve("b-charts.txt")));
+	}
+
+	@DisplayName("skip repository with same configuration")
+	@Test
+	void skip() throws IOException, MojoExecutionException {
+		mock.stubFor(WireMock.get("/a/index.yaml").willReturn(WireMock.ok(INDEX)));
+		Path directory = Files.createTempDirectory("helm-registry");
+		Path config = directory.resolve("repositories.yaml");
+		Path cache = directory.resolve("cache");
+
+		registry(config, cache).add(entry("a"), false).register();
+		registry(config, cache).add(entry("a"), false).register();
+		mock.verify(1, WireMock.getRequestedFor(WireMock.urlEqualTo("/a/index.yaml")));
+	}
+
+	@DisplayName("fail for repository with different configuration")
+	@Test
+	void conflict() throws IOException, MojoExecutionException {
+		mock.stubFor(WireMock.get("/a/index.yaml").willReturn(WireMock.ok(INDEX)));
+		Path directory = Files.createTempDirectory("helm-registry");
+		Path config = directory.resolve("repositories.yaml");
+		Path cache = directory.resolve("cache");
+
+		registry(config, cache).add(entry("a"), false).register();
+		RepositoryRegistry registry = registry(config, cache).add(entry("a").setUsername("foo"), false);
+		String message = assertThrows(MojoExecutionException.class, registry::register).getMessage();
+		assertEquals("repository name (a) already exists, please specify a different name", message);
+
+		registry(config, cache).add(entry("a").setUsername("foo").setPassword("bar"), true).register();
+		String content = new String(Files.readAllBytes(config), StandardCharsets.UTF_8);
+		assertTrue(content.contains("username: foo"), content);
+		mock.verify(2, WireMock.getRequestedFor(WireMock.urlEqualTo("/a/index.yaml")));
+	}
+
+	@DisplayName("fail for invalid index without writing repositories")
+	@Test
+	void invalidIndex() throws IOException {
+		mock.stubFor(WireMock.get("/a/index.yaml").willReturn(WireMock.ok(INDEX)));
+		mock.stubFor(WireMock.get("/b/index.yaml").willReturn(WireMock.ok("entries: {}")));
+		Path directory = Files.createTempDirectory("helm-registry");
+		Path config = directory.resolve("repositories.yaml");
+		Path cache = directory.resolve("cache");
+
+		RepositoryRegistry registry = registry(config, cache).add(entry("a"), false).add(entry("b"), false);
+		String message = assertThrows(MojoExecutionException.class, registry::register).getMessage();
+		assertTrue(message.contains("no API version specified"), message);
+		assertFalse(Files.exists(config), "repositories written");
+	}
+
+	@DisplayName("refresh indexes with conditional requests")
+	@Test
+	void refresh() throws IOException, MojoExecutionException {
+		mock.stubFor(WireMock.get("/a/index.yaml").willReturn(WireMock.ok(INDEX).withHeader("ETag", "\"1\"")));
+		mock.stubFor(WireMock.get("/a/index.yaml")
+				.withHeader("If-None-Match", WireMock.equalTo("\"1\""))
+				.willReturn(WireMock.aResponse().withStatus(304)));
+		Path directory = Files.createTempDirectory("helm-registry");
+		Path config = directory.resolve("repositories.yaml");
+		Path cache = directory.resolve("cache");
+		Files.write(config, ("repositories:\n"
+				+ "- name: a\n  url: " + mock.baseUrl() + "/a\n"
+				+ "- name: tls\n  url: https://example.org/tls\n  caFile: ca.crt\n")
+				.getBytes(StandardCharsets.UTF_8));
+
+		assertFalse(registry(config, cache).refresh(), "repository with tls settings left to helm");
+		assertEquals(INDEX, new String(Files.readAllBytes(cache.resolve("a-index.yaml")), StandardCharsets.UTF_8));
+		assertFalse(registry(config, cache).refresh(), "repository with tls settings left to helm");
+		assertEquals(Arrays.asList("app", "other"), Files.readAllLines(cache.resolve("a-charts.txt")));
+		mock.verify(1, WireMock.getRequestedFor(WireMock.urlEqualTo("/a/index.yaml"))
+				.withHeader("If-None-Match", WireMock.equalTo("\"1\"")));
+	}
+
+	private RepositoryRegistry registry(Path config, Path cache) {
+		return new RepositoryRegistry(new SystemStreamLog(), config, cache, URL::openConnection);
+	}
+
+	private RepositoriesFile.Entry entry(String name) {
+		return new RepositoriesFile.Entry().setName(name).setUrl(mock.baseUrl() + "/" + name);
+	}
+}
@@ -0,0 +1,45 @@
+package io.kokuwa.maven.helm.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.compress.utils.IOUtils;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("util:spilling-buffer")
+public class SpillingBufferTest {
+
+	@DisplayName("content below threshold stays in memory")
+	@Test
+	void memory() throws IOException {
+		try (SpillingBuffer buffer = new SpillingBuffer(10)) {
+			buffer.write("foo\n".getBytes(StandardCharsets.UTF_8));
+			assertFalse(buffer.isSpilled());
+			assertEquals(4, buffer.size());
+			assertEquals("foo\n", buffer.toString(StandardCharsets.UTF_8));
+			assertEquals("o\n", buffer.tail(2, StandardCharsets.UTF_8));
+		}
+	}
+
+	@DisplayName("content above threshold is spilled to disk")
+	@Test
+	void spilled() throws IOException {
+		try (SpillingBuffer buffer = new SpillingBuffer(4)) {
+			buffer.write("foo\n".getBytes(StandardCharsets.UTF_8));
+			buffer.write("bar\n".getBytes(StandardCharsets.UTF_8));
+			assertTrue(buffer.isSpilled());
+			assertEquals(8, buffer.size());
+			assertEquals("foo\nbar\n", buffer.toString(StandardCharsets.UTF_8));
+			assertEquals("ar\n", buffer.tail(3, StandardCharsets.UTF_8));
+			try (InputStream stream = buffer.openStream()) {
+				assertEquals("foo\nbar\n", new String(IOUtils.toByteArray(stream), StandardCharsets.UTF_8));
+			}
+		}
+	}
+}